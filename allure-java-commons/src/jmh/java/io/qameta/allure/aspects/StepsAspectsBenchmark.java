@@ -0,0 +1,109 @@
+package io.qameta.allure.aspects;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.Step;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of {@link StepsAspects} on hot step method. Join points are created the
+ * same way as woven code does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StepsAspectsBenchmark {
+
+    private final StepsAspects aspects = new StepsAspects();
+
+    private JoinPoint.StaticPart staticPart;
+
+    private AllureLifecycle lifecycle;
+
+    private String testUuid;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Factory factory = new Factory("StepsAspectsBenchmark.java", StepsAspectsBenchmark.class);
+        staticPart = factory.makeSJP(JoinPoint.METHOD_EXECUTION, factory.makeMethodSig(
+                Modifier.PUBLIC, "hotStep", StepsAspectsBenchmark.class,
+                new Class[]{String.class, int.class}, new String[]{"name", "index"},
+                new Class[0], void.class
+        ), 1);
+
+        lifecycle = new AllureLifecycle(new NoopResultsWriter());
+        StepsAspects.setLifecycle(lifecycle);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        StepsAspects.setLifecycle(null);
+    }
+
+    /**
+     * Each invocation records its step into a fresh test case, otherwise the steps of all invocations
+     * are collected in one test case and the benchmark measures the growth of the steps list.
+     */
+    @Setup(Level.Invocation)
+    public void startTestCase() throws Exception {
+        testUuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().withUuid(testUuid));
+        lifecycle.startTestCase(testUuid);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopTestCase() throws Exception {
+        lifecycle.stopTestCase(testUuid);
+        lifecycle.writeTestCase(testUuid);
+    }
+
+    @Benchmark
+    public void hotStep() {
+        final JoinPoint joinPoint = Factory.makeJP(staticPart, this, this, "name", 42);
+        aspects.stepStart(joinPoint);
+        aspects.stepStop(staticPart, null);
+    }
+
+    @Step("Hot step")
+    public void hotStep(final String name, final int index) {
+        //used as join point signature
+    }
+
+    /**
+     * Writer that drops all the results.
+     */
+    private static class NoopResultsWriter implements AllureResultsWriter {
+
+        @Override
+        public void write(final TestResult testResult) {
+            //do nothing
+        }
+
+        @Override
+        public void write(final TestResultContainer testResultContainer) {
+            //do nothing
+        }
+
+        @Override
+        public void write(final String source, final InputStream attachment) {
+            //do nothing
+        }
+    }
+}
@@ -8,6 +8,10 @@ import io.qameta.allure.model.StepResult;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.UUID;
+
+import static io.qameta.allure.ResultsUtils.getStatus;
+import static io.qameta.allure.ResultsUtils.getStatusDetails;
 
 /**
  * The class contains some useful methods to work with {@link AllureLifecycle}.
@@ -17,21 +21,28 @@ public final class Allure {
     private static final String TXT_EXTENSION = ".txt";
     private static final String TEXT_PLAIN = "text/plain";
 
-    private static AllureLifecycle lifecycle;
+    /**
+     * The lifecycle set by {@link #setLifecycle(AllureLifecycle)}, overrides the default one.
+     */
+    private static volatile AllureLifecycle lifecycle;
 
     private Allure() {
         throw new IllegalStateException("Do not instance");
     }
 
+    /**
+     * Returns the lifecycle set by {@link #setLifecycle(AllureLifecycle)} or the default one.
+     * The default lifecycle is created once on the first call and safely published to all threads.
+     *
+     * @return the allure lifecycle.
+     */
     public static AllureLifecycle getLifecycle() {
-        if (Objects.isNull(lifecycle)) {
-            lifecycle = new AllureLifecycle();
-        }
-        return lifecycle;
+        final AllureLifecycle current = lifecycle;
+        return Objects.isNull(current) ? DefaultLifecycleHolder.INSTANCE : current;
     }
 
     public static void addStep(final String name) {
-        lifecycle.addStep(new StepResult()
+        getLifecycle().addStep(new StepResult()
                 .withName(name)
                 .withStart(System.currentTimeMillis())
                 .withStop(System.currentTimeMillis())
@@ -41,7 +52,7 @@ public final class Allure {
     }
 
     public static void addStep(final String name, final Status status, final StatusDetails statusDetails) {
-        lifecycle.addStep(new StepResult()
+        getLifecycle().addStep(new StepResult()
                 .withName(name)
                 .withStart(System.currentTimeMillis())
                 .withStop(System.currentTimeMillis())
@@ -51,31 +62,90 @@ public final class Allure {
         );
     }
 
+    /**
+     * Runs given block as step. The step is nested into the current step (if any), timed and
+     * marked as failed or broken if the block throws an exception. The exception is rethrown.
+     * Unlike {@link Step} annotation requires no AspectJ weaving.
+     *
+     * @param name     the name of step.
+     * @param runnable the step body.
+     */
+    public static void step(final String name, final ThrowingRunnable runnable) {
+        step(name, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs given block as step and returns its result. See {@link #step(String, ThrowingRunnable)}.
+     *
+     * @param name     the name of step.
+     * @param supplier the step body.
+     * @param <T>      the type of result.
+     * @return the value returned by the step body.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    public static <T> T step(final String name, final ThrowingSupplier<T> supplier) {
+        final AllureLifecycle current = getLifecycle();
+        final String uuid = UUID.randomUUID().toString();
+        current.startStep(uuid, new StepResult().withName(name));
+        try {
+            final T result = supplier.get();
+            current.updateStep(uuid, step -> step.withStatus(Status.PASSED));
+            return result;
+        } catch (Throwable e) {
+            current.updateStep(uuid, step -> step
+                    .withStatus(getStatus(e).orElse(Status.BROKEN))
+                    .withStatusDetails(getStatusDetails(e).orElse(null)));
+            throw Allure.<RuntimeException>sneakyThrow(e);
+        } finally {
+            current.stopStep(uuid);
+        }
+    }
+
     public static void addAttachment(final String name, final String content) {
-        lifecycle.addAttachment(name, TEXT_PLAIN, TXT_EXTENSION, content.getBytes(StandardCharsets.UTF_8));
+        getLifecycle().addAttachment(name, TEXT_PLAIN, TXT_EXTENSION, content.getBytes(StandardCharsets.UTF_8));
     }
 
     public static void addAttachment(final String name, final String type, final String content) {
-        lifecycle.addAttachment(name, type, TXT_EXTENSION, content.getBytes(StandardCharsets.UTF_8));
+        getLifecycle().addAttachment(name, type, TXT_EXTENSION, content.getBytes(StandardCharsets.UTF_8));
     }
 
     @SuppressWarnings("PMD.UseObjectForClearerAPI")
     public static void addAttachment(final String name, final String type,
                                      final String content, final String fileExtension) {
-        lifecycle.addAttachment(name, type, fileExtension, content.getBytes(StandardCharsets.UTF_8));
+        getLifecycle().addAttachment(name, type, fileExtension, content.getBytes(StandardCharsets.UTF_8));
     }
 
     public static void addAttachment(final String name, final InputStream content) {
-        lifecycle.addAttachment(name, null, null, content);
+        getLifecycle().addAttachment(name, null, null, content);
     }
 
     @SuppressWarnings("PMD.UseObjectForClearerAPI")
     public static void addAttachment(final String name, final String type,
                                      final InputStream content, final String fileExtension) {
-        lifecycle.addAttachment(name, type, fileExtension, content);
+        getLifecycle().addAttachment(name, type, fileExtension, content);
     }
 
     public static void setLifecycle(final AllureLifecycle lifecycle) {
         Allure.lifecycle = lifecycle;
     }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T sneakyThrow(final Throwable throwable) throws T {
+        throw (T) throwable;
+    }
+
+    /**
+     * Lazy holder for default lifecycle, class initialization guarantees the only instance.
+     */
+    private static final class DefaultLifecycleHolder {
+
+        private static final AllureLifecycle INSTANCE = new AllureLifecycle();
+
+        private DefaultLifecycleHolder() {
+            throw new IllegalStateException("Do not instance");
+        }
+    }
 }
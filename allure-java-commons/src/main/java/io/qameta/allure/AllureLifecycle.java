@@ -1,24 +1,37 @@
 package io.qameta.allure;
 
+import io.qameta.allure.listener.LifecycleListener;
 import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.ExecutableItem;
 import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Parameter;
 import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
 import io.qameta.allure.model.StepResult;
 import io.qameta.allure.model.TestResult;
 import io.qameta.allure.model.TestResultContainer;
 import io.qameta.allure.model.WithAttachments;
 import io.qameta.allure.model.WithSteps;
+import io.qameta.allure.parameter.ParameterRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
@@ -29,29 +42,87 @@ import static io.qameta.allure.AllureConstants.ATTACHMENT_FILE_SUFFIX;
 /**
  * The class contains Allure context and methods to change it.
  */
-@SuppressWarnings("PMD.TooManyMethods")
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.GodClass"})
 public class AllureLifecycle {
 
+    /**
+     * Enables collapsing of consecutive sibling steps with the same name and status.
+     */
+    public static final String ALLURE_STEPS_AGGREGATE = "allure.steps.aggregate";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(AllureLifecycle.class);
 
     private final Map<String, Object> storage = new ConcurrentHashMap<>();
 
-    private final ThreadLocal<LinkedList<String>> currentStepContext =
-            InheritableThreadLocal.withInitial(LinkedList::new);
+    private final ThreadLocal<LinkedList<String>> currentStepContext = ThreadLocal.withInitial(LinkedList::new);
 
     private final AllureResultsWriter writer;
 
+    private final StepsAggregator aggregator;
+
+    private final StepsBudget.Limits budgetLimits;
+
+    private final Map<String, StepsBudget> budgets = new ConcurrentHashMap<>();
+
+    private final StepsRecursion recursion;
+
+    private final InFlightTracker tracker;
+
+    /**
+     * Null if there are no listeners registered, so the events are not even created.
+     */
+    private final LifecycleNotifier notifier;
+
+    /**
+     * Creates lifecycle with listeners found by {@link java.util.ServiceLoader}.
+     *
+     * @param writer the results writer.
+     */
     public AllureLifecycle(final AllureResultsWriter writer) {
+        this(writer, LifecycleNotifier.loadListeners());
+    }
+
+    @SuppressWarnings("PMD.NullAssignment")
+    public AllureLifecycle(final AllureResultsWriter writer, final List<LifecycleListener> listeners) {
         this.writer = writer;
+        this.aggregator = Boolean.getBoolean(ALLURE_STEPS_AGGREGATE) ? new StepsAggregator() : null;
+        this.budgetLimits = StepsBudget.Limits.fromSystemProperties();
+        this.recursion = StepsRecursion.fromSystemProperties();
+        this.tracker = InFlightTracker.fromSystemProperties();
+        this.notifier = LifecycleNotifier.create(listeners);
     }
 
     public AllureLifecycle() {
         this(getDefaultWriter());
     }
 
-    private static FileSystemResultsWriter getDefaultWriter() {
+    /**
+     * The default writer is created on the first write, so the results directory is not
+     * created for runs without results. If routing is enabled, the results of each route are
+     * written to the subdirectory named after the route. Routes that map to the same directory
+     * name get the index appended.
+     */
+    private static AllureResultsWriter getDefaultWriter() {
         final String path = System.getProperty("allure.results.directory", "allure-results");
-        return new FileSystemResultsWriter(Paths.get(path));
+        final AllureResultsWriter defaultWriter =
+                new LazyResultsWriter(() -> new FileSystemResultsWriter(Paths.get(path)));
+        if (!Boolean.getBoolean(RoutingResultsWriter.ALLURE_RESULTS_ROUTING)) {
+            return defaultWriter;
+        }
+        final Set<String> directories = ConcurrentHashMap.newKeySet();
+        return new RoutingResultsWriter(defaultWriter, route -> {
+            final String name = route.replaceAll("[^\\w.-]", "_");
+            String directory = name;
+            for (int index = 2; !directories.add(directory); index++) {
+                directory = name + "-" + index;
+            }
+            final String routeDirectory = directory;
+            return new LazyResultsWriter(() -> new FileSystemResultsWriter(Paths.get(path, routeDirectory)));
+        });
+    }
+
+    public AllureResultsWriter getWriter() {
+        return writer;
     }
 
     public void startTestContainer(final String parentUuid, final TestResultContainer container) {
@@ -64,6 +135,9 @@ public class AllureLifecycle {
         LOGGER.debug("Start test result container {}", container.getUuid());
         put(container.getUuid(), container)
                 .withStart(System.currentTimeMillis());
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onContainerStart(container));
+        }
     }
 
     public void updateTestContainer(final String uuid, final Consumer<TestResultContainer> update) {
@@ -73,13 +147,16 @@ public class AllureLifecycle {
 
     public void stopTestContainer(final String uuid) {
         LOGGER.debug("Stop test result container {}", uuid);
-        get(uuid, TestResultContainer.class)
+        final TestResultContainer container = get(uuid, TestResultContainer.class)
                 .withStop(System.currentTimeMillis());
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onContainerStop(container));
+        }
     }
 
     public void writeTestContainer(final String uuid) {
         LOGGER.debug("Stop test group {}", uuid);
-        writer.write(remove(uuid, TestResultContainer.class));
+        write(remove(uuid, TestResultContainer.class));
     }
 
     public void startBeforeFixture(final String parentUuid, final String uuid, final FixtureResult result) {
@@ -101,6 +178,10 @@ public class AllureLifecycle {
         fixturesGetter.apply(container).add(result);
         currentStepContext.remove();
         currentStepContext.get().push(uuid);
+        startStepsBudget(uuid);
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onFixtureStart(result));
+        }
     }
 
     public void updateFixture(final String uuid, final Consumer<FixtureResult> update) {
@@ -111,9 +192,14 @@ public class AllureLifecycle {
     public void stopFixture(final String uuid) {
         LOGGER.debug("Stop test before {}", uuid);
         currentStepContext.remove();
-        remove(uuid, FixtureResult.class)
+        releaseAggregation(uuid);
+        stopStepsBudget(uuid);
+        final FixtureResult result = remove(uuid, FixtureResult.class)
                 .withStage(Stage.FINISHED)
                 .withStop(System.currentTimeMillis());
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onFixtureStop(result));
+        }
     }
 
     public void scheduleTestCase(final String parentUuid, final TestResult result) {
@@ -131,11 +217,44 @@ public class AllureLifecycle {
 
     public void startTestCase(final String uuid) {
         LOGGER.debug("Start test case {}", uuid);
-        get(uuid, TestResult.class)
+        final TestResult result = get(uuid, TestResult.class)
                 .withStage(Stage.RUNNING)
                 .withStart(System.currentTimeMillis());
         currentStepContext.remove();
         currentStepContext.get().push(uuid);
+        startStepsBudget(uuid);
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onTestStart(result));
+        }
+    }
+
+    /**
+     * Returns the uuid of test case (or fixture) of current thread, if any.
+     *
+     * @return the uuid of current test case.
+     */
+    public Optional<String> getCurrentTestCase() {
+        return Optional.ofNullable(currentStepContext.get().peekLast());
+    }
+
+    /**
+     * Sets the test case of current thread, so the following steps and attachments of current thread
+     * are added to it. Adapters use it for threads that run the test body, but don't start the test
+     * (like the thread TestNG creates for the test with timeOut). The step context is not inherited
+     * by child threads.
+     *
+     * @param uuid the uuid of running test case.
+     */
+    public void setCurrentTestCase(final String uuid) {
+        currentStepContext.remove();
+        currentStepContext.get().push(uuid);
+    }
+
+    /**
+     * Clears the test case and steps of current thread.
+     */
+    public void clearCurrentTestCase() {
+        currentStepContext.remove();
     }
 
     public void updateTestCase(final String uuid, final Consumer<TestResult> update) {
@@ -146,14 +265,53 @@ public class AllureLifecycle {
     public void stopTestCase(final String uuid) {
         LOGGER.debug("Stop test case {}", uuid);
         currentStepContext.remove();
-        get(uuid, TestResult.class)
+        releaseAggregation(uuid);
+        final TestResult result = get(uuid, TestResult.class)
                 .withStage(Stage.FINISHED)
                 .withStop(System.currentTimeMillis());
+        final StepsBudget budget = stopStepsBudget(uuid);
+        if (Objects.nonNull(budget) && budget.getDropped() > 0) {
+            result.getParameters().add(new Parameter()
+                    .withName(StepsBudget.RECORDED_STEPS_PARAMETER)
+                    .withValue(String.valueOf(budget.getRecorded())));
+            result.getParameters().add(new Parameter()
+                    .withName(StepsBudget.DROPPED_STEPS_PARAMETER)
+                    .withValue(String.valueOf(budget.getDropped())));
+        }
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onTestStop(result));
+        }
     }
 
     public void writeTestCase(final String uuid) {
         LOGGER.debug("Close test case {}", uuid);
-        writer.write(remove(uuid, TestResult.class));
+        write(remove(uuid, TestResult.class));
+    }
+
+    /**
+     * Adds given finished test cases to the container and writes them at once, without storing
+     * them in the lifecycle. Listeners are not notified about such test cases.
+     *
+     * @param parentUuid the uuid of parent container.
+     * @param results    the finished test cases to write.
+     */
+    public void writeTestCases(final String parentUuid, final Collection<TestResult> results) {
+        LOGGER.debug("Write {} test cases of {}", results.size(), parentUuid);
+        final List<String> children = get(parentUuid, TestResultContainer.class).getChildren();
+        results.forEach(result -> children.add(result.getUuid()));
+        results.forEach(this::write);
+    }
+
+    /**
+     * Removes test case from the lifecycle without writing it. Attachments of the test case are
+     * already written at this point.
+     *
+     * @param uuid the uuid of test case to remove.
+     * @return the removed test case.
+     */
+    public TestResult removeTestCase(final String uuid) {
+        LOGGER.debug("Remove test case {}", uuid);
+        return remove(uuid, TestResult.class);
     }
 
     public void addAttachment(final String name, final String type,
@@ -164,7 +322,7 @@ public class AllureLifecycle {
     @SuppressWarnings({"PMD.NullAssignment", "PMD.UseObjectForClearerAPI"})
     public void addAttachment(final String name, final String type,
                               final String fileExtension, final InputStream stream) {
-        final String uuid = currentStepContext.get().getFirst();
+        final String uuid = getAttachmentTarget(resolveStep(currentStepContext.get().getFirst()));
         LOGGER.debug("Adding attachment to item with uuid {}", uuid);
         final String extension = Optional.ofNullable(fileExtension)
                 .filter(ext -> !ext.isEmpty())
@@ -177,11 +335,24 @@ public class AllureLifecycle {
                 .withSource(source);
 
         writer.write(attachment.getSource(), stream);
+        //attachments are never dropped, so record pending step with all its parents
+        recordPendingStep(getStepsBudget(), uuid);
         get(uuid, WithAttachments.class).getAttachments().add(attachment);
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onAttachmentAdded(attachment));
+        }
     }
 
     public void addStep(final StepResult result) {
-        get(currentStepContext.get().getFirst(), WithSteps.class).getSteps().add(result);
+        final String parentUuid = resolveStep(currentStepContext.get().getFirst());
+        final StepsBudget.PendingStep pending = getPendingStep(parentUuid);
+        if (Objects.nonNull(pending)) {
+            pending.getResult().getSteps().add(result);
+            return;
+        }
+        final List<StepResult> steps = get(parentUuid, WithSteps.class).getSteps();
+        steps.add(result);
+        aggregateStep(parentUuid, steps, result);
     }
 
     @SuppressWarnings("PMD.NullAssignment")
@@ -190,8 +361,42 @@ public class AllureLifecycle {
         startStep(uuids.isEmpty() ? null : uuids.getFirst(), uuid, result);
     }
 
+    /**
+     * Starts step of the method with given signature (e.g. the static part of join point). If collapsing
+     * of recursion is enabled, the step started inside the step with the same signature is collapsed into it.
+     */
+    public void startStep(final String uuid, final StepResult result, final Object signature) {
+        final LinkedList<String> uuids = currentStepContext.get();
+        startStep(uuids.isEmpty() ? null : uuids.getFirst(), uuid, result, signature);
+    }
+
     public void startStep(final String parentUuid, final String uuid, final StepResult result) {
+        startStep(parentUuid, uuid, result, (Object) null);
+    }
+
+    private void startStep(final String parentUuid, final String uuid, final StepResult result,
+                           final Object signature) {
         LOGGER.debug("Start step {} with parent {}", uuid, parentUuid);
+        if (isRecursiveStep(parentUuid, signature)) {
+            LOGGER.debug("Collapse step {} into {}", uuid, resolveStep(parentUuid));
+            recursion.collapse(resolveStep(parentUuid), uuid);
+            currentStepContext.get().push(uuid);
+            return;
+        }
+        if (Objects.nonNull(recursion) && Objects.nonNull(signature)) {
+            recursion.start(uuid, signature);
+        }
+        startStep(resolveStep(parentUuid), uuid, result, getStepsBudget());
+    }
+
+    private void startStep(final String parentUuid, final String uuid, final StepResult result,
+                           final StepsBudget budget) {
+        if (Objects.nonNull(budget) && !isStepRecorded(budget, parentUuid)) {
+            result.withStage(Stage.RUNNING).withStart(System.currentTimeMillis());
+            budget.suppress(parentUuid, uuid, result, budget.isBeyondMaxDepth(currentStepContext.get().size()));
+            currentStepContext.get().push(uuid);
+            return;
+        }
         put(uuid, result)
                 .withStage(Stage.RUNNING)
                 .withStart(System.currentTimeMillis());
@@ -200,6 +405,9 @@ public class AllureLifecycle {
         if (Objects.nonNull(parentUuid)) {
             get(parentUuid, WithSteps.class).getSteps().add(result);
         }
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onStepStart(result));
+        }
     }
 
     public void updateStep(final Consumer<StepResult> update) {
@@ -208,7 +416,15 @@ public class AllureLifecycle {
 
     public void updateStep(final String uuid, final Consumer<StepResult> update) {
         LOGGER.debug("Update step {}", uuid);
-        update.accept(get(uuid, StepResult.class));
+        if (Objects.nonNull(recursion) && recursion.isCollapsed(uuid)) {
+            //the outermost invocation is updated when recursion unwinds, only failures are kept for it
+            final StepResult invocation = new StepResult();
+            update.accept(invocation);
+            recursion.update(uuid, invocation);
+            return;
+        }
+        final StepsBudget.PendingStep pending = getPendingStep(uuid);
+        update.accept(Objects.nonNull(pending) ? pending.getResult() : get(uuid, StepResult.class));
     }
 
     public void stopStep() {
@@ -217,15 +433,279 @@ public class AllureLifecycle {
 
     public void stopStep(final String uuid) {
         LOGGER.debug("Stop step {}", uuid);
-        remove(uuid, StepResult.class)
+        if (Objects.nonNull(recursion) && recursion.isCollapsed(uuid)) {
+            recursion.release(uuid);
+            currentStepContext.get().pop();
+            return;
+        }
+        final StepResult failure = Objects.isNull(recursion) ? null : recursion.getFailure(uuid);
+        if (Objects.nonNull(failure)) {
+            updateStep(uuid, step -> keepFailure(step, failure));
+        }
+        final long invocations = Objects.isNull(recursion) ? 0 : recursion.stop(uuid);
+        final StepsBudget budget = getStepsBudget();
+        if (Objects.nonNull(budget) && budget.isPending(uuid)) {
+            final StepsBudget.PendingStep pending = budget.getPending(uuid);
+            final Status status = pending.getResult().getStatus();
+            if (status == Status.FAILED || status == Status.BROKEN) {
+                //steps on the failure path are always recorded
+                recordPendingStep(budget, uuid);
+            } else {
+                budget.drop(uuid);
+                currentStepContext.get().pop();
+                return;
+            }
+        }
+        final StepResult result = remove(uuid, StepResult.class)
                 .withStage(Stage.FINISHED)
                 .withStop(System.currentTimeMillis());
-        currentStepContext.get().pop();
+        if (invocations > 0) {
+            result.getParameters().add(new Parameter()
+                    .withName(StepsRecursion.INVOCATIONS_PARAMETER)
+                    .withValue(String.valueOf(invocations)));
+        }
+        final LinkedList<String> uuids = currentStepContext.get();
+        uuids.pop();
+        releaseAggregation(uuid);
+
+        if (Objects.nonNull(notifier)) {
+            notifier.fire(listener -> listener.onStepStop(result));
+        }
+
+        final String parentUuid = uuids.peekFirst();
+        if (Objects.nonNull(aggregator) && Objects.nonNull(parentUuid) && storage.containsKey(parentUuid)) {
+            aggregateStep(parentUuid, get(parentUuid, WithSteps.class).getSteps(), result);
+        }
+    }
+
+    private void aggregateStep(final String parentUuid, final List<StepResult> siblings, final StepResult result) {
+        if (Objects.nonNull(aggregator) && aggregator.aggregate(parentUuid, siblings, result)) {
+            LOGGER.debug("Aggregate step {} into previous sibling", result.getName());
+            siblings.remove(siblings.size() - 1);
+        }
+    }
+
+    private void releaseAggregation(final String uuid) {
+        if (Objects.nonNull(aggregator)) {
+            aggregator.release(uuid);
+        }
+    }
+
+    private void startStepsBudget(final String uuid) {
+        if (Objects.nonNull(budgetLimits)) {
+            budgets.put(uuid, budgetLimits.newBudget());
+        }
+    }
+
+    private StepsBudget stopStepsBudget(final String uuid) {
+        if (Objects.isNull(budgetLimits)) {
+            return null;
+        }
+        final StepsBudget budget = budgets.remove(uuid);
+        if (Objects.nonNull(budget) && budget.getDropped() > 0) {
+            LOGGER.debug("Dropped {} steps of {} (recorded {})", budget.getDropped(), uuid, budget.getRecorded());
+        }
+        return budget;
+    }
+
+    /**
+     * Returns the steps budget of current test case or fixture, or null if budgets are disabled.
+     */
+    private StepsBudget getStepsBudget() {
+        if (Objects.isNull(budgetLimits)) {
+            return null;
+        }
+        final String rootUuid = currentStepContext.get().peekLast();
+        return Objects.isNull(rootUuid) ? null : budgets.get(rootUuid);
+    }
+
+    private StepsBudget.PendingStep getPendingStep(final String uuid) {
+        final StepsBudget budget = getStepsBudget();
+        return Objects.isNull(budget) ? null : budget.getPending(uuid);
+    }
+
+    private boolean isStepRecorded(final StepsBudget budget, final String parentUuid) {
+        //children of pending steps can't be recorded until parent is recorded
+        return !budget.isPending(parentUuid) && budget.tryRecord(currentStepContext.get().size());
+    }
+
+    /**
+     * Steps are recursive if they have the same signature, so the steps with the rendered names that depend
+     * on arguments are collapsed as well. Steps without signature are never collapsed.
+     */
+    private boolean isRecursiveStep(final String parentUuid, final Object signature) {
+        if (Objects.isNull(recursion) || Objects.isNull(parentUuid) || Objects.isNull(signature)) {
+            return false;
+        }
+        return Objects.equals(recursion.getSignature(recursion.resolve(parentUuid)), signature);
+    }
+
+    /**
+     * Collapsed invocations are not stored, so the failure of collapsed invocation caught by the outer one
+     * is propagated to the outermost step. The own failure of the outermost step is kept as is.
+     */
+    private static void keepFailure(final StepResult step, final StepResult failure) {
+        if (step.getStatus() != Status.FAILED && step.getStatus() != Status.BROKEN) {
+            step.withStatus(failure.getStatus())
+                    .withStatusDetails(failure.getStatusDetails());
+        }
+    }
+
+    /**
+     * Returns the uuid of the step that stores results of given step: the outermost invocation
+     * for collapsed recursive steps, given uuid otherwise.
+     */
+    private String resolveStep(final String uuid) {
+        return Objects.isNull(recursion) ? uuid : recursion.resolve(uuid);
+    }
+
+    /**
+     * Attachments of pending steps beyond the max depth are added to the closest step that can be recorded.
+     */
+    private String getAttachmentTarget(final String uuid) {
+        String target = uuid;
+        StepsBudget.PendingStep pending = getPendingStep(target);
+        while (Objects.nonNull(pending) && pending.isBeyondMaxDepth()) {
+            target = pending.getParentUuid();
+            pending = getPendingStep(target);
+        }
+        return target;
+    }
+
+    /**
+     * Moves pending step and all its pending parents to the storage.
+     */
+    private void recordPendingStep(final StepsBudget budget, final String uuid) {
+        if (Objects.isNull(budget)) {
+            return;
+        }
+        final StepsBudget.PendingStep pending = budget.release(uuid);
+        if (Objects.isNull(pending)) {
+            return;
+        }
+        final String parentUuid = pending.getParentUuid();
+        recordPendingStep(budget, parentUuid);
+        put(uuid, pending.getResult());
+        if (Objects.nonNull(parentUuid)) {
+            get(parentUuid, WithSteps.class).getSteps().add(pending.getResult());
+        }
+    }
+
+    /**
+     * Returns the number of leaked items (items evicted from the lifecycle because they were never
+     * stopped or written in time) grouped by item type and origin.
+     *
+     * @return the leaked items statistics.
+     */
+    public Map<String, Long> getLeakedItems() {
+        return Objects.isNull(tracker) ? Collections.emptyMap() : tracker.getLeaked();
+    }
+
+    private void evictLeakedItems(final String excluded) {
+        tracker.collectEvicted(System.currentTimeMillis(), excluded, this::isEvictable)
+                .forEach(this::evict);
+    }
+
+    /**
+     * Items that are never started or never written after stop can be evicted any time. Started tests,
+     * fixtures and steps are in use (e.g. on the step context of some thread), so they are evicted only
+     * when they are older than the age limit. Containers are evicted only after stop, when all the
+     * children are written.
+     */
+    private boolean isEvictable(final String uuid, final boolean expired) {
+        final Object item = storage.get(uuid);
+        if (item instanceof TestResultContainer) {
+            //do not evict running containers and containers with running children
+            final TestResultContainer container = (TestResultContainer) item;
+            return Objects.nonNull(container.getStop())
+                    && container.getChildren().stream().noneMatch(storage::containsKey);
+        }
+        if (item instanceof ExecutableItem) {
+            return expired || ((ExecutableItem) item).getStage() != Stage.RUNNING;
+        }
+        return Objects.nonNull(item);
+    }
+
+    /**
+     * Evicts the item from storage. Tests are written as broken. Running fixtures and steps are finished
+     * as broken, they are already linked to their container or parent, so they are written with it.
+     */
+    private void evict(final InFlightTracker.InFlightItem item) {
+        final Object obj = storage.remove(item.getUuid());
+        if (Objects.isNull(obj)) {
+            return;
+        }
+        LOGGER.warn("Evict leaked {}", item);
+        tracker.recordLeak(item);
+        releaseAggregation(item.getUuid());
+        budgets.remove(item.getUuid());
+
+        final StatusDetails details = new StatusDetails()
+                .withMessage(String.format("Allure lifecycle evicted %s: it was not finished in time", item));
+        if (obj instanceof TestResultContainer) {
+            final TestResultContainer container = (TestResultContainer) obj;
+            if (Objects.isNull(container.getStop())) {
+                container.setStop(System.currentTimeMillis());
+            }
+            write(container);
+            return;
+        }
+        if (obj instanceof ExecutableItem) {
+            finishEvicted(item.getUuid(), (ExecutableItem) obj, details);
+        }
+        if (obj instanceof TestResult) {
+            final TestResult result = (TestResult) obj;
+            write(result.withStatus(Status.BROKEN).withStatusDetails(details));
+        }
+    }
+
+    /**
+     * Finishes evicted item and its running steps as broken. The running steps are removed from the storage
+     * and from the step context of current thread, the step context of other threads is reset when
+     * they start the next test or fixture.
+     */
+    private void finishEvicted(final String uuid, final ExecutableItem item, final StatusDetails details) {
+        final long now = System.currentTimeMillis();
+        final Set<Object> running = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<ExecutableItem> items = new ArrayDeque<>();
+        items.push(item);
+        while (!items.isEmpty()) {
+            final ExecutableItem current = items.pop();
+            if (current == item || current.getStage() == Stage.RUNNING) {
+                running.add(current);
+                current.withStatus(Status.BROKEN).withStatusDetails(details).withStage(Stage.FINISHED);
+                if (Objects.isNull(current.getStop())) {
+                    current.setStop(now);
+                }
+            }
+            current.getSteps().forEach(items::push);
+        }
+        final Set<String> evicted = new HashSet<>();
+        evicted.add(uuid);
+        storage.entrySet().removeIf(entry -> {
+            if (running.contains(entry.getValue())) {
+                evicted.add(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+        evicted.forEach(step -> {
+            tracker.untrack(step);
+            releaseAggregation(step);
+            if (Objects.nonNull(recursion)) {
+                recursion.stop(step);
+            }
+        });
+        currentStepContext.get().removeIf(evicted::contains);
     }
 
     private <T> T put(final String uuid, final T item) {
         Objects.requireNonNull(uuid, "Can't put item to storage: uuid can't be null");
         storage.put(uuid, item);
+        if (Objects.nonNull(tracker)) {
+            tracker.track(uuid, item);
+            evictLeakedItems(uuid);
+        }
         return item;
     }
 
@@ -244,9 +724,23 @@ public class AllureLifecycle {
                 storage.remove(uuid),
                 String.format("Could not remove %s by uuid %s", clazz, uuid)
         );
+        if (Objects.nonNull(tracker)) {
+            tracker.untrack(uuid);
+        }
         return cast(obj, clazz);
     }
 
+    private void write(final TestResult result) {
+        ParameterRenderer.renderDeferred(result);
+        writer.write(result);
+    }
+
+    private void write(final TestResultContainer container) {
+        container.getBefores().forEach(ParameterRenderer::renderDeferred);
+        container.getAfters().forEach(ParameterRenderer::renderDeferred);
+        writer.write(container);
+    }
+
     private <T> T cast(final Object obj, final Class<T> clazz) {
         if (clazz.isInstance(obj)) {
             return clazz.cast(obj);
@@ -0,0 +1,151 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Link;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Labels, links and flags of test method resolved from Allure annotations of the method and
+ * its test class. Resolved metadata is cached per test class and method and shared between
+ * all invocations of the method, so it should never be modified.
+ */
+public final class AnnotationMetadata {
+
+    private static final ClassValue<Map<Method, AnnotationMetadata>> CACHE =
+            new ClassValue<Map<Method, AnnotationMetadata>>() {
+                @Override
+                protected Map<Method, AnnotationMetadata> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private static final ClassValue<AnnotationMetadata> CLASS_CACHE = new ClassValue<AnnotationMetadata>() {
+        @Override
+        protected AnnotationMetadata computeValue(final Class<?> type) {
+            return create(type, type);
+        }
+    };
+
+    private final List<Label> labels;
+
+    private final List<Link> links;
+
+    private final boolean flaky;
+
+    private final boolean muted;
+
+    private AnnotationMetadata(final List<Label> labels, final List<Link> links,
+                               final boolean flaky, final boolean muted) {
+        this.labels = Collections.unmodifiableList(labels);
+        this.links = Collections.unmodifiableList(links);
+        this.flaky = flaky;
+        this.muted = muted;
+    }
+
+    /**
+     * Returns cached metadata of given test method.
+     *
+     * @param testClass the test class, can differ from the method declaring class.
+     * @param method    the test method.
+     * @return the metadata.
+     */
+    public static AnnotationMetadata get(final Class<?> testClass, final Method method) {
+        final Map<Method, AnnotationMetadata> methods = CACHE.get(testClass);
+        final AnnotationMetadata cached = methods.get(method);
+        return Objects.isNull(cached) ? methods.computeIfAbsent(method, key -> create(testClass, key)) : cached;
+    }
+
+    /**
+     * Returns cached metadata of given test class.
+     *
+     * @param testClass the test class.
+     * @return the metadata.
+     */
+    public static AnnotationMetadata get(final Class<?> testClass) {
+        return CLASS_CACHE.get(testClass);
+    }
+
+    /**
+     * Resolves metadata without caching. Useful when the test method is not available via reflection.
+     *
+     * @param testClass the test class.
+     * @param method    the annotations of test method.
+     * @return the metadata.
+     */
+    public static AnnotationMetadata create(final Class<?> testClass, final AnnotatedElement method) {
+        final List<Label> labels = Stream.of(
+                getLabels(testClass, method, Epic.class, ResultsUtils::createLabel),
+                getLabels(testClass, method, Feature.class, ResultsUtils::createLabel),
+                getLabels(testClass, method, Story.class, ResultsUtils::createLabel),
+                getLabels(testClass, method, Severity.class, ResultsUtils::createLabel),
+                getLabels(testClass, method, Owner.class, ResultsUtils::createLabel)
+        ).flatMap(List::stream).collect(Collectors.toList());
+        final List<Link> links = new ArrayList<>();
+        addLinks(links, testClass, method, io.qameta.allure.Link.class, ResultsUtils::createLink);
+        addLinks(links, testClass, method, Issue.class, ResultsUtils::createLink);
+        addLinks(links, testClass, method, TmsLink.class, ResultsUtils::createLink);
+        return new AnnotationMetadata(
+                labels,
+                links,
+                hasAnnotation(testClass, method, Flaky.class),
+                hasAnnotation(testClass, method, Muted.class)
+        );
+    }
+
+    public List<Label> getLabels() {
+        return labels;
+    }
+
+    public List<Link> getLinks() {
+        return links;
+    }
+
+    public boolean isFlaky() {
+        return flaky;
+    }
+
+    public boolean isMuted() {
+        return muted;
+    }
+
+    /**
+     * Labels from method annotations, or from class annotations if method has no such annotations.
+     */
+    private static <T extends Annotation> List<Label> getLabels(final Class<?> testClass,
+                                                                final AnnotatedElement method,
+                                                                final Class<T> type,
+                                                                final Function<T, Label> extractor) {
+        final T[] onMethod = method.getAnnotationsByType(type);
+        final T[] annotations = onMethod.length > 0 ? onMethod : testClass.getAnnotationsByType(type);
+        return Stream.of(annotations).map(extractor).collect(Collectors.toList());
+    }
+
+    /**
+     * Links from class annotations followed by links from method annotations.
+     */
+    private static <T extends Annotation> void addLinks(final List<Link> links, final Class<?> testClass,
+                                                        final AnnotatedElement method, final Class<T> type,
+                                                        final Function<T, Link> extractor) {
+        Stream.of(testClass.getAnnotationsByType(type)).map(extractor).forEach(links::add);
+        if (method != testClass) {
+            Stream.of(method.getAnnotationsByType(type)).map(extractor).forEach(links::add);
+        }
+    }
+
+    private static boolean hasAnnotation(final Class<?> testClass, final AnnotatedElement method,
+                                         final Class<? extends Annotation> type) {
+        return method.isAnnotationPresent(type) || testClass.isAnnotationPresent(type);
+    }
+}
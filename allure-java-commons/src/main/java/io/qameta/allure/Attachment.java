@@ -8,7 +8,8 @@ import java.lang.annotation.Target;
 
 /**
  * Used to mark methods that produce attachments. Returned value of such methods
- * will be copied and shown in the report as attachment.
+ * will be copied and shown in the report as attachment. Returned input streams are
+ * read to the end and closed, so methods should not return streams used elsewhere.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
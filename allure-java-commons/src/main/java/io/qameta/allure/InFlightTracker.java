@@ -0,0 +1,188 @@
+package io.qameta.allure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tracks age of items stored in {@link AllureLifecycle} in order to find leaked items (items that never
+ * been started, stopped and never written, or started and never stopped) and to keep the storage bounded.
+ * Running items are evicted by age only, so the storage can exceed the size limit while they run, and the
+ * age limit should be greater than the duration of the longest test.
+ */
+final class InFlightTracker {
+
+    /**
+     * The maximum number of items stored in the lifecycle at the same time.
+     */
+    static final String ALLURE_LIFECYCLE_MAX_IN_FLIGHT = "allure.lifecycle.maxInFlight";
+
+    /**
+     * The maximum age (in milliseconds) of items stored in the lifecycle.
+     */
+    static final String ALLURE_LIFECYCLE_MAX_AGE = "allure.lifecycle.maxAge";
+
+    /**
+     * Enables tracking of the code that created each item. Useful to find leaks, but costs the stack trace
+     * per item.
+     */
+    static final String ALLURE_LIFECYCLE_TRACK_ORIGIN = "allure.lifecycle.trackOrigin";
+
+    private static final long SWEEP_INTERVAL = 1000L;
+
+    private static final List<String> INTERNAL_CLASSES = Arrays.asList(
+            AllureLifecycle.class.getName(),
+            InFlightTracker.class.getName()
+    );
+
+    private final int maxSize;
+
+    private final long maxAge;
+
+    private final boolean trackOrigin;
+
+    /**
+     * Items in insertion order, guarded by this.
+     */
+    private final Map<String, InFlightItem> items = new LinkedHashMap<>();
+
+    private final Map<String, AtomicLong> leaked = new ConcurrentHashMap<>();
+
+    private long lastSweep;
+
+    InFlightTracker(final int maxSize, final long maxAge, final boolean trackOrigin) {
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.trackOrigin = trackOrigin;
+    }
+
+    /**
+     * Reads tracker configuration from system properties. Returns null if tracking is disabled.
+     */
+    static InFlightTracker fromSystemProperties() {
+        final int maxSize = Integer.getInteger(ALLURE_LIFECYCLE_MAX_IN_FLIGHT, 0);
+        final long maxAge = Long.getLong(ALLURE_LIFECYCLE_MAX_AGE, 0L);
+        if (maxSize <= 0 && maxAge <= 0) {
+            return null;
+        }
+        return new InFlightTracker(maxSize, maxAge, Boolean.getBoolean(ALLURE_LIFECYCLE_TRACK_ORIGIN));
+    }
+
+    synchronized void track(final String uuid, final Object item) {
+        items.put(uuid, new InFlightItem(uuid, item.getClass().getSimpleName(), getOrigin()));
+    }
+
+    synchronized void untrack(final String uuid) {
+        items.remove(uuid);
+    }
+
+    /**
+     * Removes from tracking and returns items that should be evicted: the oldest items above
+     * the size limit and items older than the age limit.
+     *
+     * @param now       the current time.
+     * @param excluded  the uuid of item that should not be evicted (usually the item just stored).
+     * @param evictable the predicate to check if item can be evicted right now, gets the item uuid and
+     *                  true if the item is older than the age limit.
+     * @return the items to evict.
+     */
+    synchronized List<InFlightItem> collectEvicted(final long now, final String excluded,
+                                                   final BiPredicate<String, Boolean> evictable) {
+        final boolean sweep = maxAge > 0 && now - lastSweep >= Math.min(SWEEP_INTERVAL, maxAge);
+        if (!sweep && (maxSize <= 0 || items.size() <= maxSize)) {
+            return Collections.emptyList();
+        }
+        if (sweep) {
+            lastSweep = now;
+        }
+        final List<InFlightItem> evicted = new ArrayList<>();
+        final Iterator<InFlightItem> iterator = items.values().iterator();
+        while (iterator.hasNext()) {
+            final InFlightItem item = iterator.next();
+            final boolean oversize = maxSize > 0 && items.size() > maxSize;
+            final boolean expired = sweep && now - item.getCreatedAt() > maxAge;
+            if (!oversize && !expired) {
+                break;
+            }
+            if (!item.getUuid().equals(excluded) && evictable.test(item.getUuid(), expired)) {
+                iterator.remove();
+                evicted.add(item);
+            }
+        }
+        return evicted;
+    }
+
+    void recordLeak(final InFlightItem item) {
+        final String key = String.format("%s at %s", item.getType(), item.getOrigin());
+        leaked.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    Map<String, Long> getLeaked() {
+        return Collections.unmodifiableMap(leaked.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get())));
+    }
+
+    private String getOrigin() {
+        final String thread = Thread.currentThread().getName();
+        if (!trackOrigin) {
+            return thread;
+        }
+        return Stream.of(new Throwable().getStackTrace())
+                .filter(element -> !INTERNAL_CLASSES.contains(element.getClassName()))
+                .findFirst()
+                .map(element -> String.format("%s (%s)", element, thread))
+                .orElse(thread);
+    }
+
+    /**
+     * The item stored in lifecycle.
+     */
+    static final class InFlightItem {
+
+        private final String uuid;
+
+        private final String type;
+
+        private final String origin;
+
+        private final long createdAt;
+
+        InFlightItem(final String uuid, final String type, final String origin) {
+            this.uuid = uuid;
+            this.type = type;
+            this.origin = origin;
+            this.createdAt = System.currentTimeMillis();
+        }
+
+        String getUuid() {
+            return uuid;
+        }
+
+        String getType() {
+            return type;
+        }
+
+        String getOrigin() {
+            return origin;
+        }
+
+        long getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s created at %s by %s", type, uuid, createdAt, Objects.toString(origin));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Results writer that creates the delegate writer on the first write. Allows to skip
+ * writer initialization (such as results directory creation) if no results are produced.
+ */
+final class LazyResultsWriter implements AllureResultsWriter {
+
+    private final Supplier<AllureResultsWriter> factory;
+
+    private volatile AllureResultsWriter delegate;
+
+    LazyResultsWriter(final Supplier<AllureResultsWriter> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void write(final TestResult testResult) {
+        getDelegate().write(testResult);
+    }
+
+    @Override
+    public void write(final TestResultContainer testResultContainer) {
+        getDelegate().write(testResultContainer);
+    }
+
+    @Override
+    public void write(final String source, final InputStream attachment) {
+        getDelegate().write(source, attachment);
+    }
+
+    private AllureResultsWriter getDelegate() {
+        AllureResultsWriter result = delegate;
+        if (Objects.isNull(result)) {
+            synchronized (this) {
+                result = delegate;
+                if (Objects.isNull(result)) {
+                    result = Objects.requireNonNull(factory.get(), "Results writer factory returned null");
+                    delegate = result;
+                }
+            }
+        }
+        return result;
+    }
+}
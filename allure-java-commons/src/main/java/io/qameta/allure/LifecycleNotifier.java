@@ -0,0 +1,93 @@
+package io.qameta.allure;
+
+import io.qameta.allure.listener.LifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches lifecycle events to registered {@link LifecycleListener}s.
+ */
+final class LifecycleNotifier {
+
+    /**
+     * Enables async dispatch of lifecycle events.
+     */
+    static final String ALLURE_LISTENERS_ASYNC = "allure.listeners.async";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleNotifier.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final LifecycleListener[] listeners;
+
+    private final ExecutorService executor;
+
+    private LifecycleNotifier(final List<LifecycleListener> listeners, final ExecutorService executor) {
+        this.listeners = listeners.toArray(new LifecycleListener[listeners.size()]);
+        this.executor = executor;
+    }
+
+    static List<LifecycleListener> loadListeners() {
+        final List<LifecycleListener> listeners = new ArrayList<>();
+        ServiceLoader.load(LifecycleListener.class).forEach(listeners::add);
+        return listeners;
+    }
+
+    /**
+     * Creates notifier for given listeners. Returns null if there are no listeners.
+     */
+    static LifecycleNotifier create(final List<LifecycleListener> listeners) {
+        if (listeners.isEmpty()) {
+            return null;
+        }
+        LOGGER.debug("Found {} lifecycle listeners", listeners.size());
+        final ExecutorService executor = Boolean.getBoolean(ALLURE_LISTENERS_ASYNC) ? createExecutor() : null;
+        return new LifecycleNotifier(listeners, executor);
+    }
+
+    void fire(final Consumer<LifecycleListener> event) {
+        if (Objects.isNull(executor)) {
+            dispatch(event);
+        } else {
+            executor.execute(() -> dispatch(event));
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void dispatch(final Consumer<LifecycleListener> event) {
+        for (LifecycleListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not invoke lifecycle listener {}", listener, e);
+            }
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        //single thread keeps the events order
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "allure-lifecycle-listeners");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        return executor;
+    }
+}
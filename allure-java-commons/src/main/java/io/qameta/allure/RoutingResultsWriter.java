@@ -0,0 +1,96 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Results writer that routes results to independent writers by the route of current thread. The route
+ * is set by the adapter (e.g. the name of TestNG suite) and inherited by threads created by the test.
+ * Results written from threads without route go to the default writer.
+ */
+public final class RoutingResultsWriter implements AllureResultsWriter {
+
+    /**
+     * Enables routing of the default lifecycle results to subdirectories of the results directory.
+     */
+    public static final String ALLURE_RESULTS_ROUTING = "allure.results.routing";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoutingResultsWriter.class);
+
+    private final AllureResultsWriter defaultWriter;
+
+    private final Function<String, AllureResultsWriter> factory;
+
+    private final Map<String, AllureResultsWriter> writers = new ConcurrentHashMap<>();
+
+    private final Set<String> finished = ConcurrentHashMap.newKeySet();
+
+    private final ThreadLocal<String> route = new InheritableThreadLocal<>();
+
+    /**
+     * Creates routing writer.
+     *
+     * @param defaultWriter the writer for results without route.
+     * @param factory       the factory of writer for given route.
+     */
+    public RoutingResultsWriter(final AllureResultsWriter defaultWriter,
+                                final Function<String, AllureResultsWriter> factory) {
+        this.defaultWriter = defaultWriter;
+        this.factory = factory;
+    }
+
+    /**
+     * Routes results written from current thread (and threads created by it) to given route.
+     */
+    public void setRoute(final String name) {
+        route.set(name);
+    }
+
+    public void clearRoute() {
+        route.remove();
+    }
+
+    /**
+     * Marks given route as finished, all results of the route are expected to be written at this point.
+     * The writer of the route is kept: results written to the route later (e.g. containers written after
+     * the suite or evicted items) go to the same writer, so the results of the route are never split.
+     */
+    public void finish(final String name) {
+        finished.add(name);
+    }
+
+    @Override
+    public void write(final TestResult testResult) {
+        getWriter().write(testResult);
+    }
+
+    @Override
+    public void write(final TestResultContainer testResultContainer) {
+        getWriter().write(testResultContainer);
+    }
+
+    @Override
+    public void write(final String source, final InputStream attachment) {
+        getWriter().write(source, attachment);
+    }
+
+    private AllureResultsWriter getWriter() {
+        final String current = route.get();
+        if (Objects.isNull(current)) {
+            return defaultWriter;
+        }
+        if (finished.contains(current)) {
+            LOGGER.debug("Write to finished route {}", current);
+        }
+        return writers.computeIfAbsent(current, factory);
+    }
+}
@@ -14,6 +14,42 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface Step {
 
+    /**
+     * The step name. By default the method name is used. The name can contain placeholders
+     * that are replaced with argument values: {0} for argument with given index, {name} for argument
+     * with given name, {name.field} for argument field or getter.
+     *
+     * @return the step name.
+     */
     String value() default "";
 
+    /**
+     * Set to false to skip capture of method arguments as step parameters.
+     *
+     * @return true if arguments should be captured.
+     */
+    boolean captureParameters() default true;
+
+    /**
+     * The names of arguments to capture as step parameters. By default all arguments are captured.
+     *
+     * @return the names of arguments to capture.
+     */
+    String[] parameters() default {};
+
+    /**
+     * Set to true to record the value returned by step method as step parameter.
+     *
+     * @return true if returned value should be recorded.
+     */
+    boolean captureResult() default false;
+
+    /**
+     * The maximum length of recorded returned value, longer values are truncated. By default
+     * the limit of parameters is used (allure.parameters.maxLength).
+     *
+     * @return the maximum length of returned value.
+     */
+    int resultMaxLength() default 0;
+
 }
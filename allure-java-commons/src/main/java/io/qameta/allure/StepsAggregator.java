@@ -0,0 +1,147 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses consecutive sibling steps with the same name and status into the single step.
+ * The collapsed step keeps parameters of the first invocation and gets the invocations count,
+ * total, min and max duration and parameters of the last invocation. Failed and broken steps
+ * are never collapsed, as well as steps with nested steps or attachments: the collapsed step
+ * would lose them.
+ */
+final class StepsAggregator {
+
+    static final String COUNT_PARAMETER = "aggregated.count";
+
+    static final String TOTAL_DURATION_PARAMETER = "aggregated.duration.total";
+
+    static final String MIN_DURATION_PARAMETER = "aggregated.duration.min";
+
+    static final String MAX_DURATION_PARAMETER = "aggregated.duration.max";
+
+    static final String LAST_PARAMETER_PREFIX = "last.";
+
+    /**
+     * Stores the last finished step for each parent.
+     */
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    /**
+     * Processes finished step. Returns true if the step was merged into the previous sibling,
+     * in that case the step should be removed from the parent.
+     *
+     * @param parentUuid the uuid of parent item.
+     * @param siblings   the children of parent item, including given step as the last one.
+     * @param step       the finished step.
+     * @return true if the step was merged into the previous sibling, false otherwise.
+     */
+    boolean aggregate(final String parentUuid, final List<StepResult> siblings, final StepResult step) {
+        final Aggregate previous = aggregates.get(parentUuid);
+        if (Objects.nonNull(previous) && previous.accepts(siblings, step)) {
+            previous.merge(step);
+            return true;
+        }
+        if (!isAggregatable(step)) {
+            aggregates.remove(parentUuid);
+        } else {
+            aggregates.put(parentUuid, new Aggregate(step));
+        }
+        return false;
+    }
+
+    /**
+     * Releases aggregation state for given parent. Should be called when parent is finished.
+     *
+     * @param parentUuid the uuid of parent item.
+     */
+    void release(final String parentUuid) {
+        if (Objects.nonNull(parentUuid)) {
+            aggregates.remove(parentUuid);
+        }
+    }
+
+    private static boolean isAggregatable(final StepResult step) {
+        return !isFailed(step.getStatus())
+                && step.getSteps().isEmpty()
+                && step.getAttachments().isEmpty();
+    }
+
+    private static boolean isFailed(final Status status) {
+        return status == Status.FAILED || status == Status.BROKEN;
+    }
+
+    private static long getDuration(final StepResult step) {
+        if (Objects.isNull(step.getStart()) || Objects.isNull(step.getStop())) {
+            return 0;
+        }
+        return step.getStop() - step.getStart();
+    }
+
+    /**
+     * The aggregated step with statistics.
+     */
+    private static class Aggregate {
+
+        private final StepResult step;
+
+        private final List<Parameter> firstParameters;
+
+        private long count;
+
+        private long total;
+
+        private long min;
+
+        private long max;
+
+        Aggregate(final StepResult step) {
+            this.step = step;
+            this.firstParameters = new ArrayList<>(step.getParameters());
+            final long duration = getDuration(step);
+            this.count = 1;
+            this.total = duration;
+            this.min = duration;
+            this.max = duration;
+        }
+
+        boolean accepts(final List<StepResult> siblings, final StepResult next) {
+            final int size = siblings.size();
+            return size > 1
+                    && siblings.get(size - 1) == next
+                    && siblings.get(size - 2) == step
+                    && isAggregatable(next)
+                    && Objects.equals(step.getStatus(), next.getStatus())
+                    && Objects.equals(step.getName(), next.getName());
+        }
+
+        void merge(final StepResult next) {
+            final long duration = getDuration(next);
+            count++;
+            total += duration;
+            min = Math.min(min, duration);
+            max = Math.max(max, duration);
+
+            final List<Parameter> parameters = new ArrayList<>(firstParameters);
+            parameters.add(new Parameter().withName(COUNT_PARAMETER).withValue(String.valueOf(count)));
+            parameters.add(new Parameter().withName(TOTAL_DURATION_PARAMETER).withValue(String.valueOf(total)));
+            parameters.add(new Parameter().withName(MIN_DURATION_PARAMETER).withValue(String.valueOf(min)));
+            parameters.add(new Parameter().withName(MAX_DURATION_PARAMETER).withValue(String.valueOf(max)));
+            for (Parameter parameter : next.getParameters()) {
+                parameters.add(new Parameter()
+                        .withName(LAST_PARAMETER_PREFIX + parameter.getName())
+                        .withValue(parameter.getValue()));
+            }
+            step.getParameters().clear();
+            step.getParameters().addAll(parameters);
+            step.setStop(next.getStop());
+        }
+    }
+}
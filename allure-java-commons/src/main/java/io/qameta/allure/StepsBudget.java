@@ -0,0 +1,204 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.StepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of steps recorded for single test case or fixture. Steps beyond the budget
+ * are kept as pending (not stored in lifecycle) and only increase counters, unless they fail.
+ * Failed pending steps are recorded together with their pending parents, including steps
+ * beyond the max depth.
+ */
+final class StepsBudget {
+
+    /**
+     * The maximum number of steps recorded for single test case or fixture.
+     */
+    static final String ALLURE_STEPS_MAX_COUNT = "allure.steps.maxCount";
+
+    /**
+     * The maximum depth of recorded steps.
+     */
+    static final String ALLURE_STEPS_MAX_DEPTH = "allure.steps.maxDepth";
+
+    /**
+     * The rate (from 0 to 1) of steps recorded after the budget is used up.
+     */
+    static final String ALLURE_STEPS_SAMPLING_RATE = "allure.steps.samplingRate";
+
+    static final String RECORDED_STEPS_PARAMETER = "allure.steps.recorded";
+
+    static final String DROPPED_STEPS_PARAMETER = "allure.steps.dropped";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StepsBudget.class);
+
+    private final Limits limits;
+
+    private final Map<String, PendingStep> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final AtomicLong overBudget = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private StepsBudget(final Limits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Returns true if the step on given depth should be recorded.
+     *
+     * @param depth the step depth, starting from 1 for top level steps.
+     * @return true if step should be recorded, false otherwise.
+     */
+    boolean tryRecord(final int depth) {
+        if (isBeyondMaxDepth(depth)) {
+            return false;
+        }
+        if (limits.maxCount <= 0 || recorded.get() < limits.maxCount) {
+            recorded.incrementAndGet();
+            return true;
+        }
+        final long skipped = overBudget.incrementAndGet();
+        if (limits.samplingInterval > 0 && skipped % limits.samplingInterval == 0) {
+            recorded.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if steps on given depth are recorded only if they fail. Recursive steps
+     * can't produce deep steps chains that way, while the failure path is kept.
+     */
+    boolean isBeyondMaxDepth(final int depth) {
+        return limits.maxDepth > 0 && depth > limits.maxDepth;
+    }
+
+    void suppress(final String parentUuid, final String uuid, final StepResult result,
+                  final boolean beyondMaxDepth) {
+        pending.put(uuid, new PendingStep(parentUuid, result, beyondMaxDepth));
+    }
+
+    boolean isPending(final String uuid) {
+        return Objects.nonNull(uuid) && pending.containsKey(uuid);
+    }
+
+    PendingStep getPending(final String uuid) {
+        return Objects.isNull(uuid) ? null : pending.get(uuid);
+    }
+
+    /**
+     * Removes pending step in order to record it.
+     */
+    PendingStep release(final String uuid) {
+        final PendingStep step = pending.remove(uuid);
+        if (Objects.nonNull(step)) {
+            recorded.incrementAndGet();
+        }
+        return step;
+    }
+
+    /**
+     * Removes pending step without recording.
+     */
+    void drop(final String uuid) {
+        if (Objects.nonNull(pending.remove(uuid))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    long getRecorded() {
+        return recorded.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * The step that is not recorded yet.
+     */
+    static final class PendingStep {
+
+        private final String parentUuid;
+
+        private final StepResult result;
+
+        private final boolean beyondMaxDepth;
+
+        PendingStep(final String parentUuid, final StepResult result, final boolean beyondMaxDepth) {
+            this.parentUuid = parentUuid;
+            this.result = result;
+            this.beyondMaxDepth = beyondMaxDepth;
+        }
+
+        String getParentUuid() {
+            return parentUuid;
+        }
+
+        StepResult getResult() {
+            return result;
+        }
+
+        boolean isBeyondMaxDepth() {
+            return beyondMaxDepth;
+        }
+    }
+
+    /**
+     * Budget limits, shared between all test cases.
+     */
+    static final class Limits {
+
+        private final long maxCount;
+
+        private final int maxDepth;
+
+        private final long samplingInterval;
+
+        Limits(final long maxCount, final int maxDepth, final double samplingRate) {
+            this.maxCount = maxCount;
+            this.maxDepth = maxDepth;
+            this.samplingInterval = samplingRate > 0 ? Math.max(1, Math.round(1 / samplingRate)) : 0;
+        }
+
+        /**
+         * Reads limits from system properties. Returns null if no limits are configured.
+         */
+        static Limits fromSystemProperties() {
+            final long maxCount = Long.getLong(ALLURE_STEPS_MAX_COUNT, 0L);
+            final int maxDepth = Integer.getInteger(ALLURE_STEPS_MAX_DEPTH, 0);
+            final double samplingRate = getSamplingRate();
+            if (maxCount <= 0 && maxDepth <= 0) {
+                return null;
+            }
+            return new Limits(maxCount, maxDepth, samplingRate);
+        }
+
+        /**
+         * Reads the sampling rate clamped to [0, 1]. Malformed value disables sampling.
+         */
+        private static double getSamplingRate() {
+            final String value = System.getProperty(ALLURE_STEPS_SAMPLING_RATE, "0");
+            try {
+                final double rate = Double.parseDouble(value);
+                return Double.isNaN(rate) ? 0 : Math.min(1, Math.max(0, rate));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Could not parse {}={}, steps sampling is disabled", ALLURE_STEPS_SAMPLING_RATE, value);
+                return 0;
+            }
+        }
+
+        StepsBudget newBudget() {
+            return new StepsBudget(this);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Folds self-recursive step invocations (the step started inside the step of the same method) into
+ * the outermost invocation. Collapsed invocations are not stored in lifecycle: their children are
+ * added to the outermost step and the number of invocations is recorded as step parameter. The status
+ * and details of the first failed collapsed invocation are kept for the outermost step, so the failure
+ * is not lost if the outer invocation catches it.
+ */
+final class StepsRecursion {
+
+    /**
+     * Enables collapsing of self-recursive steps.
+     */
+    static final String ALLURE_STEPS_COLLAPSE_RECURSION = "allure.steps.collapseRecursion";
+
+    static final String INVOCATIONS_PARAMETER = "allure.steps.invocations";
+
+    /**
+     * The collapsed invocation uuid to the outermost invocation uuid.
+     */
+    private final Map<String, String> collapsed = new ConcurrentHashMap<>();
+
+    /**
+     * The uuid of running step to the signature of its method.
+     */
+    private final Map<String, Object> signatures = new ConcurrentHashMap<>();
+
+    /**
+     * The outermost invocation uuid to the number of invocations.
+     */
+    private final Map<String, AtomicLong> invocations = new ConcurrentHashMap<>();
+
+    /**
+     * The outermost invocation uuid to the result of its first failed collapsed invocation.
+     */
+    private final Map<String, StepResult> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Reads configuration from system properties. Returns null if collapsing is disabled.
+     */
+    static StepsRecursion fromSystemProperties() {
+        return Boolean.getBoolean(ALLURE_STEPS_COLLAPSE_RECURSION) ? new StepsRecursion() : null;
+    }
+
+    /**
+     * Returns the uuid of outermost invocation if given step is collapsed, given uuid otherwise.
+     */
+    String resolve(final String uuid) {
+        return Objects.isNull(uuid) ? null : collapsed.getOrDefault(uuid, uuid);
+    }
+
+    void start(final String uuid, final Object signature) {
+        signatures.put(uuid, signature);
+    }
+
+    Object getSignature(final String uuid) {
+        return Objects.isNull(uuid) ? null : signatures.get(uuid);
+    }
+
+    boolean isCollapsed(final String uuid) {
+        return Objects.nonNull(uuid) && collapsed.containsKey(uuid);
+    }
+
+    void collapse(final String outermostUuid, final String uuid) {
+        collapsed.put(uuid, outermostUuid);
+        invocations.computeIfAbsent(outermostUuid, key -> new AtomicLong(1)).incrementAndGet();
+    }
+
+    /**
+     * Keeps the status and details of given collapsed invocation if it is failed or broken.
+     */
+    void update(final String uuid, final StepResult invocation) {
+        final Status status = invocation.getStatus();
+        if (status == Status.FAILED || status == Status.BROKEN) {
+            failures.putIfAbsent(resolve(uuid), invocation);
+        }
+    }
+
+    /**
+     * Returns the result of the first failed invocation collapsed into given step, or null if there is none.
+     */
+    StepResult getFailure(final String uuid) {
+        return failures.get(uuid);
+    }
+
+    void release(final String uuid) {
+        collapsed.remove(uuid);
+    }
+
+    /**
+     * Returns the number of invocations folded into given step, 0 if there were no recursive invocations.
+     */
+    long stop(final String uuid) {
+        signatures.remove(uuid);
+        failures.remove(uuid);
+        final AtomicLong count = invocations.remove(uuid);
+        return Objects.isNull(count) ? 0 : count.get();
+    }
+}
@@ -0,0 +1,12 @@
+package io.qameta.allure;
+
+/**
+ * The block of code executed as step by {@link Allure#step(String, ThrowingRunnable)}.
+ */
+@FunctionalInterface
+public interface ThrowingRunnable {
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    void run() throws Throwable;
+
+}
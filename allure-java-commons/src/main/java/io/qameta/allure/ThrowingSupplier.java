@@ -0,0 +1,14 @@
+package io.qameta.allure;
+
+/**
+ * The block of code executed as step by {@link Allure#step(String, ThrowingSupplier)}.
+ *
+ * @param <T> the type of returned value.
+ */
+@FunctionalInterface
+public interface ThrowingSupplier<T> {
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    T get() throws Throwable;
+
+}
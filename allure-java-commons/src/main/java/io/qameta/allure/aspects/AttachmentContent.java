@@ -0,0 +1,154 @@
+package io.qameta.allure.aspects;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Converts values returned by attachment methods to streams, so the content is copied to the results
+ * writer in chunks and never materialized on the heap as a whole:
+ * <ul>
+ * <li>{@link InputStream} is used as is;</li>
+ * <li>{@link Path} and {@link File} are read through the file channel in chunks (the results writer accepts
+ * streams only, so the content can't be transferred from channel to channel);</li>
+ * <li>{@link ByteBuffer} and byte arrays are read without copying;</li>
+ * <li>{@link CharSequence} (and any other object using its toString()) is encoded to UTF-8 in chunks.</li>
+ * </ul>
+ */
+final class AttachmentContent {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private AttachmentContent() {
+        throw new IllegalStateException("Do not instance");
+    }
+
+    /**
+     * Opens the content of given value. The caller owns the returned stream and must close it. Streams
+     * returned by attachment methods are returned as is, so their ownership is transferred to the caller as well.
+     *
+     * @param value the value returned by attachment method.
+     * @return the stream of attachment content.
+     * @throws IOException if given file can't be opened.
+     */
+    static InputStream open(final Object value) throws IOException {
+        if (value instanceof InputStream) {
+            return (InputStream) value;
+        }
+        if (value instanceof byte[]) {
+            return new ByteBufferInputStream(ByteBuffer.wrap((byte[]) value));
+        }
+        if (value instanceof ByteBuffer) {
+            return new ByteBufferInputStream(((ByteBuffer) value).duplicate());
+        }
+        if (value instanceof Path) {
+            return Channels.newInputStream(FileChannel.open((Path) value, StandardOpenOption.READ));
+        }
+        if (value instanceof File) {
+            return Channels.newInputStream(FileChannel.open(((File) value).toPath(), StandardOpenOption.READ));
+        }
+        final CharSequence chars = value instanceof CharSequence ? (CharSequence) value : Objects.toString(value);
+        return new CharSequenceInputStream(chars);
+    }
+
+    /**
+     * Input stream that reads remaining bytes of the buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            super();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * Input stream that encodes characters to UTF-8 chunk by chunk.
+     */
+    private static final class CharSequenceInputStream extends InputStream {
+
+        private final CharBuffer chars;
+
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+
+        private boolean flushed;
+
+        CharSequenceInputStream(final CharSequence chars) {
+            super();
+            this.chars = CharBuffer.wrap(chars);
+            this.bytes.flip();
+        }
+
+        @Override
+        public int read() {
+            return fill() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] target, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            final int count = Math.min(length, bytes.remaining());
+            bytes.get(target, offset, count);
+            return count;
+        }
+
+        private boolean fill() {
+            while (!bytes.hasRemaining() && !flushed) {
+                bytes.clear();
+                final CoderResult result = chars.hasRemaining()
+                        ? encoder.encode(chars, bytes, true)
+                        : encoder.flush(bytes);
+                if (!chars.hasRemaining() && result.isUnderflow() && bytes.position() == 0) {
+                    flushed = true;
+                }
+                bytes.flip();
+            }
+            return bytes.hasRemaining();
+        }
+    }
+}
@@ -8,8 +8,11 @@ import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Objects;
 
 /**
@@ -21,13 +24,16 @@ import java.util.Objects;
 @Aspect
 public class AttachmentsAspects {
 
-    private static AllureLifecycle lifecycle;
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentsAspects.class);
+
+    /**
+     * The lifecycle set for aspects, if null then {@link Allure#getLifecycle()} is used.
+     */
+    private static volatile AllureLifecycle lifecycle;
 
     public static AllureLifecycle getLifecycle() {
-        if (Objects.isNull(lifecycle)) {
-            lifecycle = Allure.getLifecycle();
-        }
-        return lifecycle;
+        final AllureLifecycle current = lifecycle;
+        return Objects.isNull(current) ? Allure.getLifecycle() : current;
     }
 
     /**
@@ -40,35 +46,32 @@ public class AttachmentsAspects {
     }
 
     /**
-     * Pointcut for things annotated with {@link Attachment}.
-     */
-    @Pointcut("@annotation(io.qameta.allure.Attachment)")
-    public void withAttachmentAnnotation() {
-        //pointcut body, should be empty
-    }
-
-    /**
-     * Pointcut for any methods.
+     * Pointcut for methods annotated with {@link Attachment}. Annotation-first, so the weaver can
+     * reject other methods by signature only.
      */
-    @Pointcut("execution(* *(..))")
-    public void anyMethod() {
+    @Pointcut("execution(@io.qameta.allure.Attachment * *(..))")
+    public void attachmentMethod() {
         //pointcut body, should be empty
     }
 
     /**
      * Process data returned from method annotated with {@link Attachment}.
-     * If returned data is not a byte array, then use toString() method, and get bytes from it.
+     * Byte arrays, byte buffers, input streams, files and paths are streamed to the results writer as is.
+     * Otherwise use toString() method, and encode it to UTF-8 chunk by chunk. Returned input streams
+     * are owned by the aspect: they are read to the end and closed once the attachment is written.
      *
      * @param joinPoint the join point to process.
      * @param result    the returned value.
      */
-    @AfterReturning(pointcut = "anyMethod() && withAttachmentAnnotation()", returning = "result")
+    @AfterReturning(pointcut = "attachmentMethod()", returning = "result")
     public void attachment(final JoinPoint joinPoint, final Object result) {
         final MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
         final Attachment attachment = methodSignature.getMethod()
                 .getAnnotation(Attachment.class);
-        final byte[] bytes = (result instanceof byte[]) ? (byte[]) result : result.toString()
-                .getBytes(StandardCharsets.UTF_8);
-        lifecycle.addAttachment(attachment.value(), attachment.type(), attachment.fileExtension(), bytes);
+        try (InputStream stream = AttachmentContent.open(result)) {
+            getLifecycle().addAttachment(attachment.value(), attachment.type(), attachment.fileExtension(), stream);
+        } catch (IOException e) {
+            LOGGER.error("Could not add attachment {}", attachment.value(), e);
+        }
     }
 }
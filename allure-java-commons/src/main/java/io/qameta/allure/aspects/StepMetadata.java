@@ -0,0 +1,126 @@
+package io.qameta.allure.aspects;
+
+import io.qameta.allure.Step;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.parameter.ParameterRenderer;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Step method metadata resolved once per join point, so step start requires no reflection.
+ */
+final class StepMetadata {
+
+    /**
+     * The name of parameter with value returned by step method.
+     */
+    static final String RESULT_PARAMETER = "result";
+
+    /**
+     * Join point static parts are created once per woven method, so can be used as identity keys.
+     */
+    private static final Map<JoinPoint.StaticPart, StepMetadata> CACHE = new ConcurrentHashMap<>();
+
+    private final StepNameTemplate name;
+
+    private final String[] parameterNames;
+
+    /**
+     * The indexes of arguments captured as parameters.
+     */
+    private final int[] captured;
+
+    private final boolean captureResult;
+
+    private final int resultMaxLength;
+
+    private StepMetadata(final StepNameTemplate name, final String[] parameterNames, final int[] captured,
+                         final boolean captureResult, final int resultMaxLength) {
+        this.name = name;
+        this.parameterNames = parameterNames;
+        this.captured = captured;
+        this.captureResult = captureResult;
+        this.resultMaxLength = resultMaxLength;
+    }
+
+    static StepMetadata get(final JoinPoint.StaticPart staticPart) {
+        final StepMetadata cached = CACHE.get(staticPart);
+        return Objects.nonNull(cached) ? cached : CACHE.computeIfAbsent(staticPart, StepMetadata::create);
+    }
+
+    private static StepMetadata create(final JoinPoint.StaticPart staticPart) {
+        final MethodSignature signature = (MethodSignature) staticPart.getSignature();
+        final Optional<Step> step = Optional.ofNullable(signature.getMethod().getAnnotation(Step.class));
+        final String name = step
+                .map(Step::value)
+                .filter(s -> !s.isEmpty())
+                .orElseGet(signature::getName);
+        final String[] parameterNames = Optional.ofNullable(signature.getParameterNames())
+                .orElseGet(() -> new String[0]);
+        final int[] captured = step.map(annotation -> getCaptured(annotation, parameterNames))
+                .orElseGet(() -> IntStream.range(0, parameterNames.length).toArray());
+        final boolean captureResult = step.map(Step::captureResult).orElse(false)
+                && !Void.TYPE.equals(signature.getReturnType());
+        final int resultMaxLength = step.map(Step::resultMaxLength).orElse(0);
+        return new StepMetadata(
+                StepNameTemplate.compile(name, parameterNames), parameterNames,
+                captured, captureResult, resultMaxLength
+        );
+    }
+
+    private static int[] getCaptured(final Step step, final String... parameterNames) {
+        if (!step.captureParameters()) {
+            return new int[0];
+        }
+        final List<String> selected = Arrays.asList(step.parameters());
+        return IntStream.range(0, parameterNames.length)
+                .filter(i -> selected.isEmpty() || selected.contains(parameterNames[i]))
+                .toArray();
+    }
+
+    /**
+     * Creates step result for given method arguments.
+     *
+     * @param args the method arguments.
+     * @return the step result.
+     */
+    StepResult createStepResult(final Object... args) {
+        final StepResult result = new StepResult().withName(name.render(args));
+        final List<Parameter> parameters = result.getParameters();
+        final ParameterRenderer renderer = ParameterRenderer.getDefault();
+        for (int i : captured) {
+            if (i < args.length) {
+                parameters.add(renderer.createParameter(parameterNames[i], args[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if value returned by step method should be recorded.
+     */
+    boolean isCaptureResult() {
+        return captureResult;
+    }
+
+    /**
+     * Records value returned by step method as step parameter.
+     *
+     * @param step  the step result to update.
+     * @param value the value returned by step method.
+     */
+    void recordResult(final StepResult step, final Object value) {
+        step.getParameters().add(new Parameter()
+                .withName(RESULT_PARAMETER)
+                .withValue(ParameterRenderer.getDefault().render(value, resultMaxLength)));
+    }
+}
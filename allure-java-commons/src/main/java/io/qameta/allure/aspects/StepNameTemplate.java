@@ -0,0 +1,220 @@
+package io.qameta.allure.aspects;
+
+import io.qameta.allure.parameter.ParameterRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled step name template. Supports the following placeholders:
+ * <ul>
+ * <li>{0} - the value of the method argument with given index;</li>
+ * <li>{name} - the value of the method argument with given name;</li>
+ * <li>{name.field} - the value of the argument getter (or field). Nested fields are supported as well.</li>
+ * </ul>
+ * Unknown placeholders, as well as placeholders with inaccessible fields, are kept as is.
+ */
+final class StepNameTemplate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StepNameTemplate.class);
+
+    private static final Object UNRESOLVED = new Object();
+
+    private static final ClassValue<Map<String, Optional<MethodHandle>>> ACCESSORS =
+            new ClassValue<Map<String, Optional<MethodHandle>>>() {
+                @Override
+                protected Map<String, Optional<MethodHandle>> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final String template;
+
+    private final Segment[] segments;
+
+    private final boolean constant;
+
+    private StepNameTemplate(final String template, final List<Segment> segments) {
+        this.template = template;
+        this.segments = segments.toArray(new Segment[segments.size()]);
+        this.constant = segments.stream().allMatch(Segment::isLiteral);
+    }
+
+    /**
+     * Parses given template.
+     *
+     * @param template       the template to parse.
+     * @param parameterNames the names of method parameters.
+     * @return the compiled template.
+     */
+    static StepNameTemplate compile(final String template, final String... parameterNames) {
+        final List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < template.length()) {
+            final int start = template.indexOf('{', position);
+            final int end = start < 0 ? -1 : template.indexOf('}', start);
+            if (end < 0) {
+                segments.add(new Segment(template.substring(position)));
+                break;
+            }
+            if (start > position) {
+                segments.add(new Segment(template.substring(position, start)));
+            }
+            segments.add(createPlaceholder(template.substring(start, end + 1), parameterNames));
+            position = end + 1;
+        }
+        return new StepNameTemplate(template, segments);
+    }
+
+    /**
+     * Returns true if template has no placeholders, so its value doesn't depend on arguments.
+     */
+    boolean isConstant() {
+        return constant;
+    }
+
+    String render(final Object... args) {
+        if (constant) {
+            return template;
+        }
+        final StringBuilder builder = new StringBuilder(template.length());
+        for (Segment segment : segments) {
+            segment.appendTo(builder, args);
+        }
+        return builder.toString();
+    }
+
+    private static Segment createPlaceholder(final String placeholder, final String... parameterNames) {
+        final String[] path = placeholder.substring(1, placeholder.length() - 1).split("\\.");
+        final int index = getParameterIndex(path[0], parameterNames);
+        if (index < 0 || Arrays.stream(path).anyMatch(String::isEmpty)) {
+            return new Segment(placeholder);
+        }
+        return new Segment(placeholder, index, Arrays.copyOfRange(path, 1, path.length));
+    }
+
+    /**
+     * Returns the index of parameter with given name or index, or -1 if there is no such parameter.
+     * Indexes too large for an int are out of range as well, so such placeholders are kept as is.
+     */
+    private static int getParameterIndex(final String name, final String... parameterNames) {
+        if (!name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+            try {
+                final int index = Integer.parseInt(name);
+                return index < parameterNames.length ? index : -1;
+            } catch (NumberFormatException e) {
+                LOGGER.debug("Parameter index {} is out of range", name, e);
+                return -1;
+            }
+        }
+        return Arrays.asList(parameterNames).indexOf(name);
+    }
+
+    /**
+     * Returns the value of given field, or {@link #UNRESOLVED} if there is no accessible getter or field.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private static Object getFieldValue(final Object object, final String name) {
+        final Optional<MethodHandle> accessor = ACCESSORS.get(object.getClass())
+                .computeIfAbsent(name, key -> findAccessor(object.getClass(), key));
+        if (!accessor.isPresent()) {
+            return UNRESOLVED;
+        }
+        try {
+            return accessor.get().invoke(object);
+        } catch (Throwable e) {
+            LOGGER.debug("Could not get value of {} from {}", name, object.getClass(), e);
+            return UNRESOLVED;
+        }
+    }
+
+    /**
+     * Public getters and methods are preferred to fields. Private members of classes from other modules
+     * can't be made accessible since Java 9, so any runtime exception means the member is not accessible.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static Optional<MethodHandle> findAccessor(final Class<?> type, final String name) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final String getter = "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String methodName : Arrays.asList(getter, name)) {
+            try {
+                final Method method = type.getMethod(methodName);
+                method.setAccessible(true);
+                return Optional.of(lookup.unreflect(method));
+            } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+                LOGGER.trace("No accessible method {} in {}", methodName, type, e);
+            }
+        }
+        for (Class<?> current = type; Objects.nonNull(current); current = current.getSuperclass()) {
+            try {
+                final Field field = current.getDeclaredField(name);
+                field.setAccessible(true);
+                return Optional.of(lookup.unreflectGetter(field));
+            } catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+                LOGGER.trace("No accessible field {} in {}", name, current, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The part of template: either literal text or placeholder.
+     */
+    private static final class Segment {
+
+        private final String text;
+
+        private final int index;
+
+        private final String[] path;
+
+        Segment(final String text) {
+            this.text = text;
+            this.index = -1;
+            this.path = new String[0];
+        }
+
+        /**
+         * Creates placeholder segment, the text of placeholder is rendered if its value can't be resolved.
+         */
+        Segment(final String text, final int index, final String... path) {
+            this.text = text;
+            this.index = index;
+            this.path = path;
+        }
+
+        boolean isLiteral() {
+            return index < 0;
+        }
+
+        void appendTo(final StringBuilder builder, final Object... args) {
+            if (isLiteral()) {
+                builder.append(text);
+                return;
+            }
+            Object value = index < args.length ? args[index] : null;
+            for (String field : path) {
+                if (Objects.isNull(value)) {
+                    break;
+                }
+                value = getFieldValue(value, field);
+                if (value == UNRESOLVED) {
+                    builder.append(text);
+                    return;
+                }
+            }
+            builder.append(ParameterRenderer.getDefault().render(value));
+        }
+    }
+}
@@ -2,8 +2,6 @@ package io.qameta.allure.aspects;
 
 import io.qameta.allure.Allure;
 import io.qameta.allure.AllureLifecycle;
-import io.qameta.allure.Step;
-import io.qameta.allure.model.Parameter;
 import io.qameta.allure.model.Status;
 import io.qameta.allure.model.StepResult;
 import org.aspectj.lang.JoinPoint;
@@ -12,12 +10,9 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 
 import java.util.Objects;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.IntStream;
 
 import static io.qameta.allure.ResultsUtils.getStatus;
 import static io.qameta.allure.ResultsUtils.getStatusDetails;
@@ -29,29 +24,29 @@ import static io.qameta.allure.ResultsUtils.getStatusDetails;
 @Aspect
 public class StepsAspects {
 
-    private static AllureLifecycle lifecycle;
-
-    @Pointcut("@annotation(io.qameta.allure.Step)")
-    public void withStepAnnotation() {
-        //pointcut body, should be empty
-    }
+    /**
+     * The lifecycle set for aspects, if null then {@link Allure#getLifecycle()} is used.
+     */
+    private static volatile AllureLifecycle lifecycle;
 
-    @Pointcut("execution(* *(..))")
-    public void anyMethod() {
+    /**
+     * Annotation-first pointcut, so the weaver can reject methods without {@link io.qameta.allure.Step}
+     * by signature only.
+     */
+    @Pointcut("execution(@io.qameta.allure.Step * *(..))")
+    public void stepMethod() {
         //pointcut body, should be empty
     }
 
-    @Before("anyMethod() && withStepAnnotation()")
+    @Before("stepMethod()")
     public void stepStart(final JoinPoint joinPoint) {
-        final MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
         final String uuid = UUID.randomUUID().toString();
-        final StepResult result = new StepResult()
-                .withName(getName(methodSignature))
-                .withParameters(getParameters(methodSignature, joinPoint.getArgs()));
-        getLifecycle().startStep(uuid, result);
+        final StepResult result = StepMetadata.get(joinPoint.getStaticPart())
+                .createStepResult(joinPoint.getArgs());
+        getLifecycle().startStep(uuid, result, joinPoint.getStaticPart());
     }
 
-    @AfterThrowing(pointcut = "anyMethod() && withStepAnnotation()", throwing = "e")
+    @AfterThrowing(pointcut = "stepMethod()", throwing = "e")
     public void stepFailed(final Throwable e) {
         getLifecycle().updateStep(result -> result
                 .withStatus(getStatus(e).orElse(Status.BROKEN))
@@ -59,9 +54,15 @@ public class StepsAspects {
         getLifecycle().stopStep();
     }
 
-    @AfterReturning("anyMethod() && withStepAnnotation()")
-    public void stepStop() {
-        getLifecycle().updateStep(step -> step.withStatus(Status.PASSED));
+    @AfterReturning(pointcut = "stepMethod()", returning = "result")
+    public void stepStop(final JoinPoint.StaticPart staticPart, final Object result) {
+        final StepMetadata metadata = StepMetadata.get(staticPart);
+        getLifecycle().updateStep(step -> {
+            step.withStatus(Status.PASSED);
+            if (metadata.isCaptureResult()) {
+                metadata.recordResult(step, result);
+            }
+        });
         getLifecycle().stopStep();
     }
 
@@ -75,24 +76,7 @@ public class StepsAspects {
     }
 
     public static AllureLifecycle getLifecycle() {
-        if (Objects.isNull(lifecycle)) {
-            lifecycle = Allure.getLifecycle();
-        }
-        return lifecycle;
-    }
-
-    private static Parameter[] getParameters(final MethodSignature signature, final Object... args) {
-        return IntStream.range(0, args.length).mapToObj(index -> {
-            final String name = signature.getParameterNames()[index];
-            final String value = Objects.toString(args[index]);
-            return new Parameter().withName(name).withValue(value);
-        }).toArray(Parameter[]::new);
-    }
-
-    private static String getName(final MethodSignature signature) {
-        return Optional.ofNullable(signature.getMethod().getAnnotation(Step.class))
-                .map(Step::value)
-                .filter(s -> !s.isEmpty())
-                .orElseGet(signature::getName);
+        final AllureLifecycle current = lifecycle;
+        return Objects.isNull(current) ? Allure.getLifecycle() : current;
     }
 }
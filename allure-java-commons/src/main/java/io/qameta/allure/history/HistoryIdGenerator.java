@@ -0,0 +1,310 @@
+package io.qameta.allure.history;
+
+import io.qameta.allure.model.Parameter;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Generates history ids of test results from the test name and parameters, so different parameter
+ * sets of the same test have different history. Supports the following algorithms (configured by
+ * allure.historyId.algorithm system property):
+ * <ul>
+ * <li>md5 (default) - compatible with history ids of previous versions;</li>
+ * <li>fnv - 64-bit FNV-1a, non-cryptographic and much cheaper than md5.</li>
+ * </ul>
+ * The test name without parameters is hashed as is, so such history ids are compatible with previous
+ * versions. Otherwise each component (name, parameter names and values) is prefixed with its length,
+ * so components never run together (e.g. parameters a=bc and ab=c have different history ids).
+ * Digest instances and buffers are reused per thread.
+ */
+public final class HistoryIdGenerator {
+
+    public static final String ALLURE_HISTORY_ID_ALGORITHM = "allure.historyId.algorithm";
+
+    public static final String MD5 = "md5";
+
+    public static final String FNV = "fnv";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final Comparator<String[]> PARAMETERS_ORDER = Comparator
+            .<String[], String>comparing(pair -> pair[0])
+            .thenComparing(pair -> pair[1]);
+
+    private final ThreadLocal<Hasher> hashers;
+
+    public HistoryIdGenerator(final String algorithm) {
+        if (FNV.equalsIgnoreCase(algorithm)) {
+            this.hashers = ThreadLocal.withInitial(FnvHasher::new);
+        } else {
+            //fail fast if the algorithm is not supported
+            getMessageDigest(algorithm);
+            this.hashers = ThreadLocal.withInitial(() -> new DigestHasher(getMessageDigest(algorithm)));
+        }
+    }
+
+    /**
+     * Returns the generator configured by system properties.
+     *
+     * @return the default generator.
+     */
+    public static HistoryIdGenerator getDefault() {
+        return DefaultGeneratorHolder.INSTANCE;
+    }
+
+    /**
+     * Generates history id for given test name.
+     *
+     * @param name the full name of test.
+     * @return the history id.
+     */
+    public String generate(final String name) {
+        return generate(name, Collections.<Parameter>emptyList());
+    }
+
+    /**
+     * Generates history id for given test name and parameters. The order of parameters doesn't matter.
+     *
+     * @param name       the full name of test.
+     * @param parameters the test parameters.
+     * @return the history id.
+     */
+    public String generate(final String name, final Map<String, String> parameters) {
+        final String[][] pairs = new String[parameters.size()][];
+        int i = 0;
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            pairs[i++] = new String[]{Objects.toString(entry.getKey()), Objects.toString(entry.getValue())};
+        }
+        return generate(name, pairs);
+    }
+
+    /**
+     * Generates history id for given test name and parameters. The order of parameters doesn't matter.
+     *
+     * @param name       the full name of test.
+     * @param parameters the test parameters.
+     * @return the history id.
+     */
+    public String generate(final String name, final Collection<Parameter> parameters) {
+        final String[][] pairs = new String[parameters.size()][];
+        int i = 0;
+        for (Parameter parameter : parameters) {
+            pairs[i++] = new String[]{Objects.toString(parameter.getName()), Objects.toString(parameter.getValue())};
+        }
+        return generate(name, pairs);
+    }
+
+    private String generate(final String name, final String[]... parameters) {
+        if (parameters.length > 1) {
+            Arrays.sort(parameters, PARAMETERS_ORDER);
+        }
+        final Hasher hasher = hashers.get();
+        hasher.reset();
+        if (parameters.length == 0) {
+            hasher.update(name);
+            return hasher.finish();
+        }
+        hasher.updateComponent(name);
+        for (String[] parameter : parameters) {
+            hasher.updateComponent(parameter[0]);
+            hasher.updateComponent(parameter[1]);
+        }
+        return hasher.finish();
+    }
+
+    private static MessageDigest getMessageDigest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not find " + algorithm + " hashing algorithm", e);
+        }
+    }
+
+    /**
+     * Streams UTF-8 encoded strings through the fixed size buffer.
+     */
+    private abstract static class Hasher {
+
+        private final byte[] buffer = new byte[256];
+
+        private int position;
+
+        void reset() {
+            position = 0;
+        }
+
+        /**
+         * Updates the hash with the length of value (4 bytes) followed by the value.
+         */
+        void updateComponent(final String value) {
+            final int length = value.length();
+            put(length >>> 24);
+            put(length >>> 16);
+            put(length >>> 8);
+            put(length);
+            update(value);
+        }
+
+        void update(final String value) {
+            final int length = value.length();
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    put(c);
+                } else if (c < 0x800) {
+                    put(0xC0 | c >> 6);
+                    put(0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    put(0xF0 | codePoint >> 18);
+                    put(0x80 | codePoint >> 12 & 0x3F);
+                    put(0x80 | codePoint >> 6 & 0x3F);
+                    put(0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    //the same replacement as String.getBytes uses for malformed input
+                    put('?');
+                } else {
+                    put(0xE0 | c >> 12);
+                    put(0x80 | c >> 6 & 0x3F);
+                    put(0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        String finish() {
+            flush();
+            return digest();
+        }
+
+        private void put(final int value) {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void flush() {
+            if (position > 0) {
+                update(buffer, position);
+                position = 0;
+            }
+        }
+
+        protected abstract void update(byte[] bytes, int length);
+
+        protected abstract String digest();
+    }
+
+    /**
+     * Message digest based hasher. The hex representation has no leading zeros, as history ids
+     * generated by previous versions.
+     */
+    private static final class DigestHasher extends Hasher {
+
+        private final MessageDigest digest;
+
+        private final byte[] result;
+
+        private final char[] hex;
+
+        DigestHasher(final MessageDigest digest) {
+            super();
+            this.digest = digest;
+            this.result = new byte[digest.getDigestLength()];
+            this.hex = new char[result.length * 2];
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            digest.reset();
+        }
+
+        @Override
+        protected void update(final byte[] bytes, final int length) {
+            digest.update(bytes, 0, length);
+        }
+
+        @Override
+        protected String digest() {
+            try {
+                digest.digest(result, 0, result.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException("Could not calculate history id", e);
+            }
+            int length = 0;
+            for (byte value : result) {
+                hex[length++] = HEX[value >> 4 & 0xF];
+                hex[length++] = HEX[value & 0xF];
+            }
+            int start = 0;
+            while (start < length - 1 && hex[start] == '0') {
+                start++;
+            }
+            return new String(hex, start, length - start);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hasher.
+     */
+    private static final class FnvHasher extends Hasher {
+
+        private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+        private static final long PRIME = 0x100000001b3L;
+
+        private final char[] hex = new char[16];
+
+        private long hash = OFFSET_BASIS;
+
+        @Override
+        void reset() {
+            super.reset();
+            hash = OFFSET_BASIS;
+        }
+
+        @Override
+        protected void update(final byte[] bytes, final int length) {
+            long current = hash;
+            for (int i = 0; i < length; i++) {
+                current ^= bytes[i] & 0xFF;
+                current *= PRIME;
+            }
+            hash = current;
+        }
+
+        @Override
+        protected String digest() {
+            long value = hash;
+            for (int i = hex.length - 1; i >= 0; i--) {
+                hex[i] = HEX[(int) (value & 0xF)];
+                value >>>= 4;
+            }
+            return new String(hex);
+        }
+    }
+
+    /**
+     * Lazy holder for default generator.
+     */
+    private static final class DefaultGeneratorHolder {
+
+        private static final HistoryIdGenerator INSTANCE = new HistoryIdGenerator(
+                System.getProperty(ALLURE_HISTORY_ID_ALGORITHM, MD5)
+        );
+
+        private DefaultGeneratorHolder() {
+            throw new IllegalStateException("Do not instance");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.qameta.allure.listener;
+
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+
+/**
+ * Listener for {@link io.qameta.allure.AllureLifecycle} events. Implementations are discovered
+ * using {@link java.util.ServiceLoader}, so in order to register listener you should add its name
+ * to META-INF/services/io.qameta.allure.listener.LifecycleListener file.
+ * <p>
+ * Listeners receive live result objects. When async dispatch is enabled
+ * (allure.listeners.async system property), listeners are invoked from separate thread,
+ * so results should be treated as read only and may already contain later changes.
+ */
+public interface LifecycleListener {
+
+    default void onContainerStart(final TestResultContainer container) {
+        //do nothing by default
+    }
+
+    default void onContainerStop(final TestResultContainer container) {
+        //do nothing by default
+    }
+
+    default void onFixtureStart(final FixtureResult result) {
+        //do nothing by default
+    }
+
+    default void onFixtureStop(final FixtureResult result) {
+        //do nothing by default
+    }
+
+    default void onTestStart(final TestResult result) {
+        //do nothing by default
+    }
+
+    default void onTestStop(final TestResult result) {
+        //do nothing by default
+    }
+
+    default void onStepStart(final StepResult result) {
+        //do nothing by default
+    }
+
+    default void onStepStop(final StepResult result) {
+        //do nothing by default
+    }
+
+    default void onAttachmentAdded(final Attachment attachment) {
+        //do nothing by default
+    }
+}
@@ -0,0 +1,50 @@
+package io.qameta.allure.parameter;
+
+import io.qameta.allure.model.Parameter;
+
+import java.util.Objects;
+
+/**
+ * Parameter that renders its value on the first access or when the lifecycle writes the result
+ * (see {@link ParameterRenderer#renderDeferred(io.qameta.allure.model.ExecutableItem)}): serializers read
+ * the value field, not the getter. Keeps the reference to the original value until rendered, so
+ * the value is rendered in its state at that moment, not at invocation.
+ */
+class DeferredParameter extends Parameter {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient ParameterRenderer renderer;
+
+    private transient Object original;
+
+    DeferredParameter(final ParameterRenderer renderer, final Object original) {
+        super();
+        this.renderer = renderer;
+        this.original = original;
+    }
+
+    @Override
+    public synchronized String getValue() {
+        render();
+        return super.getValue();
+    }
+
+    /**
+     * Renders the value into the value field, if not rendered yet.
+     */
+    synchronized void render() {
+        if (Objects.nonNull(renderer)) {
+            super.setValue(renderer.render(original));
+            renderer = null;
+            original = null;
+        }
+    }
+
+    @Override
+    public synchronized void setValue(final String value) {
+        renderer = null;
+        original = null;
+        super.setValue(value);
+    }
+}
@@ -0,0 +1,291 @@
+package io.qameta.allure.parameter;
+
+import io.qameta.allure.model.ExecutableItem;
+import io.qameta.allure.model.Parameter;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Renders step and test parameter values. Supports the following system properties:
+ * <ul>
+ * <li>allure.parameters.maxLength - the maximum length of rendered value, longer values are truncated;</li>
+ * <li>allure.parameters.identityCacheSize - the number of last rendered values cached per thread
+ * by identity. Repeated arguments are rendered only once, but changes of mutable arguments
+ * between invocations are not visible;</li>
+ * <li>allure.parameters.deferred - render values of mutable types when the result is written (or on
+ * the first access to the parameter value, like TestNG adapter does to compute the history id when
+ * the test is stopped) instead of when the parameter is created. Results are written on the test thread,
+ * so this only moves rendering to the end of the test. Mutable arguments are rendered in their state
+ * at that moment, not in their state at invocation.</li>
+ * </ul>
+ * Renderers for custom types can be registered via {@link TypeRenderer} SPI.
+ */
+public final class ParameterRenderer {
+
+    public static final String ALLURE_PARAMETERS_MAX_LENGTH = "allure.parameters.maxLength";
+
+    public static final String ALLURE_PARAMETERS_IDENTITY_CACHE_SIZE = "allure.parameters.identityCacheSize";
+
+    public static final String ALLURE_PARAMETERS_DEFERRED = "allure.parameters.deferred";
+
+    private static final String TRUNCATED_SUFFIX = "...";
+
+    private final List<TypeRenderer<?>> renderers;
+
+    private final int maxLength;
+
+    private final boolean deferred;
+
+    private final ThreadLocal<IdentityCache> cache;
+
+    private final ClassValue<TypeRenderer<Object>> resolved = new ClassValue<TypeRenderer<Object>>() {
+        @Override
+        protected TypeRenderer<Object> computeValue(final Class<?> type) {
+            return findRenderer(type);
+        }
+    };
+
+    public ParameterRenderer(final List<TypeRenderer<?>> renderers, final int maxLength,
+                             final int identityCacheSize, final boolean deferred) {
+        this.renderers = new ArrayList<>(renderers);
+        this.maxLength = maxLength;
+        this.deferred = deferred;
+        this.cache = identityCacheSize > 0
+                ? ThreadLocal.withInitial(() -> new IdentityCache(identityCacheSize))
+                : null;
+    }
+
+    /**
+     * Returns the renderer configured by system properties with renderers found by
+     * {@link ServiceLoader}.
+     *
+     * @return the default renderer.
+     */
+    public static ParameterRenderer getDefault() {
+        return DefaultRendererHolder.INSTANCE;
+    }
+
+    /**
+     * Creates parameter with given name and rendered value.
+     *
+     * @param name  the parameter name.
+     * @param value the parameter value.
+     * @return the created parameter.
+     */
+    public Parameter createParameter(final String name, final Object value) {
+        final Parameter parameter = deferred && !isImmutable(value)
+                ? new DeferredParameter(this, value)
+                : new Parameter().withValue(render(value));
+        return parameter.withName(name);
+    }
+
+    /**
+     * Renders values of deferred parameters of given item and all its steps. Should be called before
+     * the item is written, since serializers read the parameter value field directly.
+     *
+     * @param item the item to render parameters of.
+     */
+    public static void renderDeferred(final ExecutableItem item) {
+        final Deque<ExecutableItem> items = new ArrayDeque<>();
+        items.push(item);
+        while (!items.isEmpty()) {
+            final ExecutableItem current = items.pop();
+            for (Parameter parameter : current.getParameters()) {
+                if (parameter instanceof DeferredParameter) {
+                    ((DeferredParameter) parameter).render();
+                }
+            }
+            current.getSteps().forEach(items::push);
+        }
+    }
+
+    /**
+     * Renders given value.
+     *
+     * @param value the value to render.
+     * @return the string representation of value, truncated to the max length.
+     */
+    public String render(final Object value) {
+        if (Objects.isNull(value)) {
+            return Objects.toString(null);
+        }
+        if (Objects.isNull(cache) || isImmutable(value)) {
+            return truncate(resolved.get(value.getClass()).render(value));
+        }
+        final IdentityCache identityCache = cache.get();
+        final String cached = identityCache.get(value);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+        final String rendered = truncate(resolved.get(value.getClass()).render(value));
+        identityCache.put(value, rendered);
+        return rendered;
+    }
+
+    /**
+     * Renders given value with given length limit. The identity cache is not used.
+     *
+     * @param value the value to render.
+     * @param limit the maximum length of rendered value, the default one is used if not positive.
+     * @return the string representation of value, truncated to the limit.
+     */
+    public String render(final Object value, final int limit) {
+        if (limit <= 0) {
+            return render(value);
+        }
+        final String rendered = Objects.isNull(value)
+                ? Objects.toString(null)
+                : resolved.get(value.getClass()).render(value);
+        return truncate(rendered, limit);
+    }
+
+    private String truncate(final String value) {
+        return truncate(value, maxLength);
+    }
+
+    private static String truncate(final String value, final int limit) {
+        if (limit <= 0 || Objects.isNull(value) || value.length() <= limit) {
+            return value;
+        }
+        return value.substring(0, limit) + TRUNCATED_SUFFIX;
+    }
+
+    private static boolean isImmutable(final Object value) {
+        return Objects.isNull(value) || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value instanceof Character || value instanceof Enum;
+    }
+
+    /**
+     * Finds the most specific renderer: the renderer for the closest superclass first,
+     * then the renderer for implemented interfaces.
+     */
+    @SuppressWarnings("unchecked")
+    private TypeRenderer<Object> findRenderer(final Class<?> type) {
+        for (Class<?> current = type; Objects.nonNull(current); current = current.getSuperclass()) {
+            final Optional<TypeRenderer<?>> renderer = findRendererFor(current);
+            if (renderer.isPresent()) {
+                return (TypeRenderer<Object>) renderer.get();
+            }
+        }
+        return renderers.stream()
+                .filter(renderer -> renderer.getType().isAssignableFrom(type))
+                .findFirst()
+                .map(renderer -> (TypeRenderer<Object>) renderer)
+                .orElseGet(() -> type.isArray() ? ArrayRenderer.INSTANCE : ObjectRenderer.INSTANCE);
+    }
+
+    private Optional<TypeRenderer<?>> findRendererFor(final Class<?> type) {
+        return renderers.stream()
+                .filter(renderer -> renderer.getType().equals(type))
+                .findFirst();
+    }
+
+    /**
+     * The fallback renderer for arrays, renders elements of nested arrays as well.
+     */
+    private static final class ArrayRenderer implements TypeRenderer<Object> {
+
+        private static final ArrayRenderer INSTANCE = new ArrayRenderer();
+
+        @Override
+        public Class<Object> getType() {
+            return Object.class;
+        }
+
+        @Override
+        public String render(final Object array) {
+            if (array instanceof Object[]) {
+                return Arrays.deepToString((Object[]) array);
+            }
+            final Object[] values = new Object[Array.getLength(array)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Array.get(array, i);
+            }
+            return Arrays.toString(values);
+        }
+    }
+
+    /**
+     * The fallback renderer for all other types.
+     */
+    private static final class ObjectRenderer implements TypeRenderer<Object> {
+
+        private static final ObjectRenderer INSTANCE = new ObjectRenderer();
+
+        @Override
+        public Class<Object> getType() {
+            return Object.class;
+        }
+
+        @Override
+        public String render(final Object value) {
+            return Objects.toString(value);
+        }
+    }
+
+    /**
+     * The fixed size cache of last rendered values, compared by identity.
+     */
+    private static final class IdentityCache {
+
+        private final Object[] keys;
+
+        private final String[] values;
+
+        private int next;
+
+        IdentityCache(final int size) {
+            this.keys = new Object[size];
+            this.values = new String[size];
+        }
+
+        String get(final Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(final Object key, final String value) {
+            keys[next] = key;
+            values[next] = value;
+            next = (next + 1) % keys.length;
+        }
+    }
+
+    /**
+     * Lazy holder for default renderer.
+     */
+    private static final class DefaultRendererHolder {
+
+        private static final ParameterRenderer INSTANCE = new ParameterRenderer(
+                loadRenderers(),
+                Integer.getInteger(ALLURE_PARAMETERS_MAX_LENGTH, 0),
+                Integer.getInteger(ALLURE_PARAMETERS_IDENTITY_CACHE_SIZE, 0),
+                Boolean.getBoolean(ALLURE_PARAMETERS_DEFERRED)
+        );
+
+        private DefaultRendererHolder() {
+            throw new IllegalStateException("Do not instance");
+        }
+
+        @SuppressWarnings("rawtypes")
+        private static List<TypeRenderer<?>> loadRenderers() {
+            final List<TypeRenderer<?>> renderers = new ArrayList<>();
+            for (TypeRenderer renderer : ServiceLoader.load(TypeRenderer.class)) {
+                renderers.add(renderer);
+            }
+            return renderers;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.qameta.allure.parameter;
+
+/**
+ * Renders parameter values of given type. Implementations are discovered using
+ * {@link java.util.ServiceLoader}, so in order to register renderer you should add its name
+ * to META-INF/services/io.qameta.allure.parameter.TypeRenderer file. The renderer
+ * is used for values of given type and all its subtypes, unless there is more specific renderer.
+ *
+ * @param <T> the type of values.
+ */
+public interface TypeRenderer<T> {
+
+    /**
+     * Returns the type of values supported by the renderer.
+     *
+     * @return the type of values.
+     */
+    Class<T> getType();
+
+    /**
+     * Renders given value.
+     *
+     * @param value the value to render, never null.
+     * @return the string representation of value.
+     */
+    String render(T value);
+
+}
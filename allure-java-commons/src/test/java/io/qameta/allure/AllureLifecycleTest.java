@@ -0,0 +1,399 @@
+package io.qameta.allure;
+
+import io.qameta.allure.listener.LifecycleListener;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.testdata.AllureResultsWriterStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class AllureLifecycleTest {
+
+    private AllureResultsWriterStub writer;
+
+    private AllureLifecycle lifecycle;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE, "true");
+        writer = new AllureResultsWriterStub();
+        lifecycle = new AllureLifecycle(writer);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.clearProperty(StepsBudget.ALLURE_STEPS_MAX_COUNT);
+        System.clearProperty(StepsBudget.ALLURE_STEPS_SAMPLING_RATE);
+        System.clearProperty(InFlightTracker.ALLURE_LIFECYCLE_MAX_IN_FLIGHT);
+        System.clearProperty(InFlightTracker.ALLURE_LIFECYCLE_MAX_AGE);
+        System.clearProperty(StepsBudget.ALLURE_STEPS_MAX_DEPTH);
+        System.clearProperty(StepsRecursion.ALLURE_STEPS_COLLAPSE_RECURSION);
+    }
+
+    @Test
+    public void shouldAggregateConsecutiveSteps() throws Exception {
+        final String uuid = startTest();
+        step("first", Status.PASSED, "1");
+        step("poll", Status.PASSED, "1");
+        step("poll", Status.PASSED, "2");
+        step("poll", Status.PASSED, "3");
+        step("last", Status.PASSED, "1");
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getName)
+                .containsExactly("first", "poll", "last");
+        assertThat(steps.get(1).getParameters())
+                .extracting(Parameter::getName, Parameter::getValue)
+                .contains(
+                        tuple("index", "1"),
+                        tuple(StepsAggregator.COUNT_PARAMETER, "3"),
+                        tuple(StepsAggregator.LAST_PARAMETER_PREFIX + "index", "3")
+                );
+    }
+
+    @Test
+    public void shouldNotAggregateStepsWithChildrenOrAttachments() throws Exception {
+        final String uuid = startTest();
+        step("poll", Status.PASSED, "1");
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("poll"));
+        step("check", Status.PASSED, "2");
+        lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+        lifecycle.stopStep();
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("poll"));
+        lifecycle.addAttachment("response", "text/plain", ".txt", "body".getBytes(StandardCharsets.UTF_8));
+        lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+        lifecycle.stopStep();
+        step("poll", Status.PASSED, "4");
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getName)
+                .containsExactly("poll", "poll", "poll", "poll");
+        assertThat(steps.get(1).getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("check");
+        assertThat(steps.get(2).getAttachments())
+                .hasSize(1);
+    }
+
+    @Test
+    public void shouldNotAggregateFailedSteps() throws Exception {
+        final String uuid = startTest();
+        step("poll", Status.PASSED, "1");
+        step("poll", Status.FAILED, "2");
+        step("poll", Status.FAILED, "3");
+        step("poll", Status.PASSED, "4");
+        step("poll", Status.PASSED, "5");
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getStatus)
+                .containsExactly(Status.PASSED, Status.FAILED, Status.FAILED, Status.PASSED);
+    }
+
+    @Test
+    public void shouldRecordFailedStepsBeyondBudget() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(StepsBudget.ALLURE_STEPS_MAX_COUNT, "2");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        step("first", Status.PASSED, "1");
+        step("second", Status.PASSED, "2");
+        step("third", Status.PASSED, "3");
+        step("fourth", Status.BROKEN, "4");
+        step("fifth", Status.PASSED, "5");
+        final TestResult result = stopTest(uuid);
+
+        assertThat(result.getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("first", "second", "fourth");
+        assertThat(result.getParameters())
+                .extracting(Parameter::getName, Parameter::getValue)
+                .containsExactly(
+                        tuple(StepsBudget.RECORDED_STEPS_PARAMETER, "3"),
+                        tuple(StepsBudget.DROPPED_STEPS_PARAMETER, "2")
+                );
+    }
+
+    @Test
+    public void shouldCollapseRecursiveSteps() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(StepsRecursion.ALLURE_STEPS_COLLAPSE_RECURSION, "true");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        recursiveStep(3);
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getName)
+                .containsExactly("walk 3");
+        assertThat(steps.get(0).getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("leaf", "leaf", "leaf");
+        assertThat(steps.get(0).getParameters())
+                .extracting(Parameter::getName, Parameter::getValue)
+                .containsExactly(tuple(StepsRecursion.INVOCATIONS_PARAMETER, "3"));
+    }
+
+    @Test
+    public void shouldKeepFailureOfCollapsedInvocation() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(StepsRecursion.ALLURE_STEPS_COLLAPSE_RECURSION, "true");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("retry 2"), "retry");
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("retry 1"), "retry");
+        lifecycle.updateStep(step -> step
+                .withStatus(Status.BROKEN)
+                .withStatusDetails(new StatusDetails().withMessage("timeout")));
+        lifecycle.stopStep();
+        lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+        lifecycle.stopStep();
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getName, StepResult::getStatus)
+                .containsExactly(tuple("retry 2", Status.BROKEN));
+        assertThat(steps.get(0).getStatusDetails().getMessage())
+                .isEqualTo("timeout");
+    }
+
+    @Test
+    public void shouldNotCollapseStepsOfDifferentMethodsWithTheSameName() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(StepsRecursion.ALLURE_STEPS_COLLAPSE_RECURSION, "true");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("open"), "first");
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("open"), "second");
+        lifecycle.stopStep();
+        lifecycle.stopStep();
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getName)
+                .containsExactly("open");
+        assertThat(steps.get(0).getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("open");
+    }
+
+    @Test
+    public void shouldRecordFailedStepsBeyondMaxDepth() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(StepsBudget.ALLURE_STEPS_MAX_DEPTH, "1");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("top"));
+        step("passed", Status.PASSED, "1");
+        step("failed", Status.FAILED, "2");
+        lifecycle.updateStep(step -> step.withStatus(Status.FAILED));
+        lifecycle.stopStep();
+        final List<StepResult> steps = stopTest(uuid).getSteps();
+
+        assertThat(steps)
+                .extracting(StepResult::getName, StepResult::getStatus)
+                .containsExactly(tuple("top", Status.FAILED));
+        assertThat(steps.get(0).getSteps())
+                .extracting(StepResult::getName, StepResult::getStatus)
+                .containsExactly(tuple("failed", Status.FAILED));
+    }
+
+    @Test
+    public void shouldIgnoreMalformedSamplingRate() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(StepsBudget.ALLURE_STEPS_MAX_COUNT, "1");
+        System.setProperty(StepsBudget.ALLURE_STEPS_SAMPLING_RATE, "half");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        step("first", Status.PASSED, "1");
+        step("second", Status.PASSED, "2");
+        step("third", Status.PASSED, "3");
+
+        assertThat(stopTest(uuid).getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("first");
+    }
+
+    @Test
+    public void shouldEvictLeakedItems() throws Exception {
+        System.setProperty(InFlightTracker.ALLURE_LIFECYCLE_MAX_IN_FLIGHT, "2");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String leaked = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().withUuid(leaked));
+        lifecycle.scheduleTestCase(new TestResult().withUuid(UUID.randomUUID().toString()));
+        lifecycle.scheduleTestCase(new TestResult().withUuid(UUID.randomUUID().toString()));
+
+        assertThat(writer.getTestResults())
+                .extracting(TestResult::getUuid, TestResult::getStatus)
+                .containsExactly(tuple(leaked, Status.BROKEN));
+        assertThat(lifecycle.getLeakedItems().values())
+                .containsExactly(1L);
+    }
+
+    @Test
+    public void shouldNotEvictRunningItems() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(InFlightTracker.ALLURE_LIFECYCLE_MAX_IN_FLIGHT, "2");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String uuid = startTest();
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("outer"));
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("inner"));
+        lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+        lifecycle.stopStep();
+        lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+        lifecycle.stopStep();
+        final TestResult result = stopTest(uuid);
+
+        assertThat(result.getStatus())
+                .isNull();
+        assertThat(result.getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("outer");
+        assertThat(lifecycle.getLeakedItems())
+                .isEmpty();
+    }
+
+    @Test
+    public void shouldEvictLeakedRunningItemsByAge() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        System.setProperty(InFlightTracker.ALLURE_LIFECYCLE_MAX_AGE, "50");
+        lifecycle = new AllureLifecycle(writer);
+
+        final String leaked = UUID.randomUUID().toString();
+        final Thread thread = new Thread(() -> {
+            lifecycle.scheduleTestCase(new TestResult().withUuid(leaked));
+            lifecycle.startTestCase(leaked);
+            lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("leaked step"));
+        });
+        thread.start();
+        thread.join();
+        Thread.sleep(100);
+
+        final String uuid = startTest();
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+
+        assertThat(writer.getTestResults())
+                .extracting(TestResult::getUuid, TestResult::getStatus, TestResult::getStage)
+                .containsExactly(
+                        tuple(leaked, Status.BROKEN, Stage.FINISHED),
+                        tuple(uuid, null, Stage.FINISHED)
+                );
+        assertThat(writer.getTestResults().get(0).getSteps())
+                .extracting(StepResult::getName, StepResult::getStatus, StepResult::getStage)
+                .containsExactly(tuple("leaked step", Status.BROKEN, Stage.FINISHED));
+        assertThat(lifecycle.getLeakedItems().values())
+                .containsExactly(1L);
+    }
+
+    @Test
+    public void shouldNotInheritStepContextInExecutorThreads() throws Exception {
+        System.clearProperty(AllureLifecycle.ALLURE_STEPS_AGGREGATE);
+        lifecycle = new AllureLifecycle(writer);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final String uuid = startTest();
+            lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("outer"));
+            assertThat(executor.submit(() -> lifecycle.getCurrentTestCase()).get())
+                    .isEmpty();
+            executor.submit(() -> {
+                lifecycle.setCurrentTestCase(uuid);
+                step("pooled", Status.PASSED, "1");
+                lifecycle.clearCurrentTestCase();
+            }).get();
+            lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+            lifecycle.stopStep();
+            final TestResult result = stopTest(uuid);
+
+            assertThat(result.getSteps())
+                    .extracting(StepResult::getName)
+                    .containsExactly("outer", "pooled");
+            assertThat(result.getSteps().get(0).getSteps())
+                    .isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotifyListeners() throws Exception {
+        final List<String> events = new ArrayList<>();
+        lifecycle = new AllureLifecycle(writer, Collections.singletonList(new LifecycleListener() {
+            @Override
+            public void onTestStart(final TestResult result) {
+                events.add("test started");
+            }
+
+            @Override
+            public void onStepStop(final StepResult result) {
+                events.add(result.getName() + " stopped");
+            }
+        }));
+
+        final String uuid = startTest();
+        step("first", Status.PASSED, "1");
+        stopTest(uuid);
+
+        assertThat(events)
+                .containsExactly("test started", "first stopped");
+    }
+
+    private String startTest() {
+        final String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().withUuid(uuid));
+        lifecycle.startTestCase(uuid);
+        return uuid;
+    }
+
+    private TestResult stopTest(final String uuid) {
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+        assertThat(writer.getTestResults()).hasSize(1);
+        return writer.getTestResults().get(0);
+    }
+
+    private void recursiveStep(final int depth) {
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult().withName("walk " + depth), "walk");
+        step("leaf", Status.PASSED, String.valueOf(depth));
+        if (depth > 1) {
+            recursiveStep(depth - 1);
+        }
+        lifecycle.updateStep(step -> step.withStatus(Status.PASSED));
+        lifecycle.stopStep();
+    }
+
+    private void step(final String name, final Status status, final String index) {
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult()
+                .withName(name)
+                .withParameters(new Parameter().withName("index").withValue(index)));
+        lifecycle.updateStep(step -> step.withStatus(status));
+        lifecycle.stopStep();
+    }
+}
@@ -0,0 +1,65 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.testdata.AllureResultsWriterStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class AllureTest {
+
+    private AllureResultsWriterStub writer;
+
+    private AllureLifecycle lifecycle;
+
+    @Before
+    public void setUp() throws Exception {
+        writer = new AllureResultsWriterStub();
+        lifecycle = new AllureLifecycle(writer);
+        Allure.setLifecycle(lifecycle);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Allure.setLifecycle(null);
+    }
+
+    @Test
+    public void shouldRecordLambdaSteps() throws Exception {
+        final String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().withUuid(uuid));
+        lifecycle.startTestCase(uuid);
+
+        final String value = Allure.step("parent", () -> {
+            Allure.step("child", () -> {
+            });
+            return "value";
+        });
+        final ThrowingRunnable failed = () -> {
+            throw new IllegalStateException("oops");
+        };
+        assertThatThrownBy(() -> Allure.step("failed", failed))
+                .isInstanceOf(IllegalStateException.class);
+
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+
+        assertThat(value).isEqualTo("value");
+        final List<StepResult> steps = writer.getTestResults().get(0).getSteps();
+        assertThat(steps)
+                .extracting(StepResult::getName, StepResult::getStatus)
+                .containsExactly(tuple("parent", Status.PASSED), tuple("failed", Status.BROKEN));
+        assertThat(steps.get(0).getSteps())
+                .extracting(StepResult::getName)
+                .containsExactly("child");
+    }
+}
@@ -0,0 +1,50 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Link;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class AnnotationMetadataTest {
+
+    @Test
+    public void shouldResolveMethodAndClassAnnotations() throws Exception {
+        final Method method = AnnotatedTest.class.getMethod("annotated");
+        final AnnotationMetadata metadata = AnnotationMetadata.get(AnnotatedTest.class, method);
+
+        assertThat(metadata.getLabels())
+                .extracting(Label::getName, Label::getValue)
+                .containsExactly(
+                        tuple("feature", "method feature"),
+                        tuple("story", "first"),
+                        tuple("story", "second"),
+                        tuple("owner", "class owner")
+                );
+        assertThat(metadata.getLinks())
+                .extracting(Link::getName)
+                .containsExactly("class issue", "method issue");
+        assertThat(metadata.isFlaky()).isTrue();
+        assertThat(metadata.isMuted()).isFalse();
+        assertThat(AnnotationMetadata.get(AnnotatedTest.class, method))
+                .isSameAs(metadata);
+    }
+
+    @Feature("class feature")
+    @Owner("class owner")
+    @Issue("class issue")
+    @Flaky
+    public static class AnnotatedTest {
+
+        @Feature("method feature")
+        @Story("first")
+        @Story("second")
+        @Issue("method issue")
+        public void annotated() {
+            //test method
+        }
+    }
+}
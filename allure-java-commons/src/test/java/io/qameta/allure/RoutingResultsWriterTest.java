@@ -0,0 +1,96 @@
+package io.qameta.allure;
+
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.testdata.AllureResultsWriterStub;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoutingResultsWriterTest {
+
+    private AllureResultsWriterStub defaultWriter;
+
+    private Map<String, AllureResultsWriterStub> writers;
+
+    private RoutingResultsWriter router;
+
+    @Before
+    public void setUp() throws Exception {
+        defaultWriter = new AllureResultsWriterStub();
+        writers = new ConcurrentHashMap<>();
+        router = new RoutingResultsWriter(defaultWriter,
+                route -> writers.computeIfAbsent(route, key -> new AllureResultsWriterStub()));
+    }
+
+    @Test
+    public void shouldRouteResultsByThread() throws Exception {
+        final Thread first = new Thread(() -> {
+            router.setRoute("first");
+            router.write(new TestResult().withName("first"));
+        });
+        final Thread second = new Thread(() -> {
+            router.setRoute("second");
+            router.write(new TestResult().withName("second"));
+        });
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        router.write(new TestResult().withName("default"));
+
+        assertThat(writers).containsOnlyKeys("first", "second");
+        assertThat(writers.get("first").getTestResults())
+                .extracting(TestResult::getName)
+                .containsExactly("first");
+        assertThat(writers.get("second").getTestResults())
+                .extracting(TestResult::getName)
+                .containsExactly("second");
+        assertThat(defaultWriter.getTestResults())
+                .extracting(TestResult::getName)
+                .containsExactly("default");
+    }
+
+    @Test
+    public void shouldInheritRouteInChildThreads() throws Exception {
+        router.setRoute("suite");
+        final Thread child = new Thread(() -> router.write(new TestResult().withName("child")));
+        child.start();
+        child.join();
+        router.clearRoute();
+
+        assertThat(writers.get("suite").getTestResults())
+                .extracting(TestResult::getName)
+                .containsExactly("child");
+        assertThat(defaultWriter.getTestResults())
+                .isEmpty();
+    }
+
+    @Test
+    public void shouldKeepWriterOfFinishedRoute() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        router = new RoutingResultsWriter(defaultWriter, route -> {
+            created.incrementAndGet();
+            return writers.computeIfAbsent(route, key -> new AllureResultsWriterStub());
+        });
+        router.setRoute("suite");
+        router.write(new TestResult().withName("test"));
+        router.finish("suite");
+        router.write(new TestResultContainer().withName("late"));
+        router.clearRoute();
+
+        assertThat(created.get())
+                .isEqualTo(1);
+        assertThat(writers.get("suite").getTestResults())
+                .extracting(TestResult::getName)
+                .containsExactly("test");
+        assertThat(writers.get("suite").getTestContainers())
+                .extracting(TestResultContainer::getName)
+                .containsExactly("late");
+    }
+}
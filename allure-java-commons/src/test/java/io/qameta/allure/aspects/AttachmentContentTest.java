@@ -0,0 +1,54 @@
+package io.qameta.allure.aspects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AttachmentContentTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldEncodeLongStrings() throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append("line \u00e9 ").append(i).append('\n');
+        }
+        assertThat(read(builder))
+                .isEqualTo(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldReadFilesAndBuffers() throws Exception {
+        final byte[] content = "file content".getBytes(StandardCharsets.UTF_8);
+        final File file = folder.newFile();
+        Files.write(file.toPath(), content);
+
+        assertThat(read(file)).isEqualTo(content);
+        assertThat(read(file.toPath())).isEqualTo(content);
+        assertThat(read(ByteBuffer.wrap(content))).isEqualTo(content);
+    }
+
+    private static byte[] read(final Object value) throws IOException {
+        try (InputStream stream = AttachmentContent.open(value)) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1000];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.qameta.allure.aspects;
+
+import io.qameta.allure.Step;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.StepResult;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.runtime.reflect.Factory;
+import org.junit.Test;
+
+import java.lang.reflect.Modifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class StepMetadataTest {
+
+    @Test
+    public void shouldCaptureSelectedParameters() throws Exception {
+        final StepMetadata metadata = StepMetadata.get(staticPart("selected", String.class));
+        final StepResult result = metadata.createStepResult("first", "second");
+
+        assertThat(result.getName())
+                .isEqualTo("step first");
+        assertThat(result.getParameters())
+                .extracting(Parameter::getName, Parameter::getValue)
+                .containsExactly(tuple("second", "second"));
+    }
+
+    @Test
+    public void shouldRecordTruncatedResult() throws Exception {
+        final StepMetadata metadata = StepMetadata.get(staticPart("withResult", String.class));
+        final StepResult result = metadata.createStepResult("first", "second");
+        metadata.recordResult(result, "1234567890");
+
+        assertThat(metadata.isCaptureResult())
+                .isTrue();
+        assertThat(result.getParameters())
+                .extracting(Parameter::getName, Parameter::getValue)
+                .containsExactly(tuple(StepMetadata.RESULT_PARAMETER, "123..."));
+    }
+
+    @Step(value = "step {first}", parameters = "second")
+    public String selected(final String first, final String second) {
+        return first + second;
+    }
+
+    @Step(captureParameters = false, captureResult = true, resultMaxLength = 3)
+    public String withResult(final String first, final String second) {
+        return first + second;
+    }
+
+    private static JoinPoint.StaticPart staticPart(final String name, final Class<?> returnType) {
+        final Factory factory = new Factory("StepMetadataTest.java", StepMetadataTest.class);
+        return factory.makeSJP(JoinPoint.METHOD_EXECUTION, factory.makeMethodSig(
+                Modifier.PUBLIC, name, StepMetadataTest.class,
+                new Class[]{String.class, String.class}, new String[]{"first", "second"},
+                new Class[0], returnType
+        ), 1);
+    }
+}
@@ -0,0 +1,88 @@
+package io.qameta.allure.aspects;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StepNameTemplateTest {
+
+    @Test
+    public void shouldRenderConstantTemplate() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Open page", "url");
+        assertThat(template.isConstant()).isTrue();
+        assertThat(template.render("https://qameta.io")).isEqualTo("Open page");
+    }
+
+    @Test
+    public void shouldRenderArgumentsByIndexAndName() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Type {1} into {field}", "field", "text");
+        assertThat(template.render("login", "admin")).isEqualTo("Type admin into login");
+    }
+
+    @Test
+    public void shouldRenderArgumentFields() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Login as {user.name} ({user.role.length})", "user");
+        assertThat(template.render(new User("admin", "root"))).isEqualTo("Login as admin (4)");
+    }
+
+    @Test
+    public void shouldKeepUnknownPlaceholders() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Step {unknown} {5} {user.missing}", "user");
+        assertThat(template.render(new User("admin", "root"))).isEqualTo("Step {unknown} {5} {user.missing}");
+    }
+
+    @Test
+    public void shouldKeepPlaceholdersWithOverflowingIndex() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Step {99999999999} {0}", "user");
+        assertThat(template.render("admin")).isEqualTo("Step {99999999999} admin");
+    }
+
+    @Test
+    public void shouldPreferGettersToFields() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Login as {user.role}", "user");
+        assertThat(template.render(new User("admin", null) {
+            @Override
+            public String getRole() {
+                return "guest";
+            }
+        })).isEqualTo("Login as guest");
+    }
+
+    @Test
+    public void shouldRenderNestedTemplatesOnTheSameThread() throws Exception {
+        final StepNameTemplate inner = StepNameTemplate.compile("inner {0}", "value");
+        final StepNameTemplate outer = StepNameTemplate.compile("outer {0} {0}", "value");
+        final Object value = new Object() {
+            @Override
+            public String toString() {
+                return inner.render("value");
+            }
+        };
+        assertThat(outer.render(value)).isEqualTo("outer inner value inner value");
+    }
+
+    @Test
+    public void shouldRenderArrays() throws Exception {
+        final StepNameTemplate template = StepNameTemplate.compile("Sum {0}", "values");
+        assertThat(template.render(new Object[]{new int[]{1, 2}})).isEqualTo("Sum [1, 2]");
+    }
+
+    /**
+     * Test argument.
+     */
+    private static class User {
+
+        private final String name;
+
+        private final String role;
+
+        User(final String name, final String role) {
+            this.name = name;
+            this.role = role;
+        }
+
+        public String getRole() {
+            return role;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.qameta.allure.history;
+
+import io.qameta.allure.model.Parameter;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistoryIdGeneratorTest {
+
+    @Test
+    public void shouldBeCompatibleWithPreviousHistoryIds() throws Exception {
+        final HistoryIdGenerator generator = new HistoryIdGenerator(HistoryIdGenerator.MD5);
+        for (String name : Arrays.asList("io.qameta.Test.test", "\u0442\u0435\u0441\u0442", "a\ud83d\ude00b")) {
+            final byte[] bytes = MessageDigest.getInstance("md5").digest(name.getBytes(UTF_8));
+            assertThat(generator.generate(name))
+                    .isEqualTo(new BigInteger(1, bytes).toString(16));
+        }
+    }
+
+    @Test
+    public void shouldIgnoreParametersOrder() throws Exception {
+        for (String algorithm : Arrays.asList(HistoryIdGenerator.MD5, HistoryIdGenerator.FNV)) {
+            final HistoryIdGenerator generator = new HistoryIdGenerator(algorithm);
+            final Parameter first = new Parameter().withName("a").withValue("1");
+            final Parameter second = new Parameter().withName("b").withValue("2");
+
+            assertThat(generator.generate("test", Arrays.asList(first, second)))
+                    .isEqualTo(generator.generate("test", Arrays.asList(second, first)))
+                    .isNotEqualTo(generator.generate("test", Collections.singletonList(first)))
+                    .isNotEqualTo(generator.generate("test"));
+        }
+    }
+
+    @Test
+    public void shouldSeparateNameAndParameters() throws Exception {
+        for (String algorithm : Arrays.asList(HistoryIdGenerator.MD5, HistoryIdGenerator.FNV)) {
+            final HistoryIdGenerator generator = new HistoryIdGenerator(algorithm);
+
+            assertThat(generator.generate("test", Collections.singletonList(parameter("a", "bc"))))
+                    .isNotEqualTo(generator.generate("test", Collections.singletonList(parameter("ab", "c"))))
+                    .isNotEqualTo(generator.generate("testa", Collections.singletonList(parameter("", "bc"))));
+            assertThat(generator.generate("test", Arrays.asList(parameter("a", ""), parameter("b", ""))))
+                    .isNotEqualTo(generator.generate("test", Collections.singletonList(parameter("a", "b"))));
+        }
+    }
+
+    private static Parameter parameter(final String name, final String value) {
+        return new Parameter().withName(name).withValue(value);
+    }
+}
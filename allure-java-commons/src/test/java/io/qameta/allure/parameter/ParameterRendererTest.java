@@ -0,0 +1,108 @@
+package io.qameta.allure.parameter;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.FileSystemResultsReader;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParameterRendererTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldUseMostSpecificRenderer() throws Exception {
+        final ParameterRenderer renderer = new ParameterRenderer(Arrays.asList(
+                renderer(CharSequence.class, value -> "chars"),
+                renderer(StringBuilder.class, value -> "builder")
+        ), 0, 0, false);
+
+        assertThat(renderer.render(new StringBuilder("a")))
+                .isEqualTo("builder");
+        assertThat(renderer.render(new StringBuffer("a")))
+                .isEqualTo("chars");
+        assertThat(renderer.render(new int[]{1, 2}))
+                .isEqualTo("[1, 2]");
+    }
+
+    @Test
+    public void shouldTruncateLongValues() throws Exception {
+        final ParameterRenderer renderer = new ParameterRenderer(Collections.emptyList(), 5, 0, false);
+
+        assertThat(renderer.render("1234567890"))
+                .isEqualTo("12345...");
+        assertThat(renderer.render("12345"))
+                .isEqualTo("12345");
+    }
+
+    @Test
+    public void shouldRenderDeferredParameterOnAccess() throws Exception {
+        final ParameterRenderer renderer = new ParameterRenderer(Collections.emptyList(), 0, 0, true);
+        final List<String> value = Arrays.asList("a", "b");
+        final Parameter parameter = renderer.createParameter("list", value);
+        value.set(0, "c");
+
+        assertThat(parameter)
+                .isInstanceOf(DeferredParameter.class);
+        assertThat(parameter.getValue())
+                .isEqualTo("[c, b]");
+    }
+
+    @Test
+    public void shouldWriteRenderedValueOfDeferredParameter() throws Exception {
+        final ParameterRenderer renderer = new ParameterRenderer(Collections.emptyList(), 0, 0, true);
+        final List<String> value = Arrays.asList("a", "b");
+        final Path results = folder.newFolder().toPath();
+        final AllureLifecycle lifecycle = new AllureLifecycle(new FileSystemResultsWriter(results));
+        final String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult()
+                .withUuid(uuid)
+                .withParameters(renderer.createParameter("list", value)));
+        lifecycle.startTestCase(uuid);
+        lifecycle.startStep(UUID.randomUUID().toString(), new StepResult()
+                .withParameters(renderer.createParameter("step list", value)));
+        lifecycle.stopStep();
+        value.set(0, "c");
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+
+        final TestResult written = new FileSystemResultsReader(results).readTestResults()
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Test result is not written"));
+        assertThat(written.getParameters())
+                .extracting(Parameter::getValue)
+                .containsExactly("[c, b]");
+        assertThat(written.getSteps())
+                .flatExtracting(StepResult::getParameters)
+                .extracting(Parameter::getValue)
+                .containsExactly("[c, b]");
+    }
+
+    private static <T> TypeRenderer<?> renderer(final Class<T> type, final Function<T, String> function) {
+        return new TypeRenderer<T>() {
+            @Override
+            public Class<T> getType() {
+                return type;
+            }
+
+            @Override
+            public String render(final T value) {
+                return function.apply(value);
+            }
+        };
+    }
+}
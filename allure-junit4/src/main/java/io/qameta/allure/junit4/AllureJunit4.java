@@ -2,42 +2,29 @@ package io.qameta.allure.junit4;
 
 import io.qameta.allure.Allure;
 import io.qameta.allure.AllureLifecycle;
-import io.qameta.allure.Epic;
-import io.qameta.allure.Feature;
-import io.qameta.allure.Owner;
-import io.qameta.allure.ResultsUtils;
-import io.qameta.allure.Severity;
-import io.qameta.allure.Story;
+import io.qameta.allure.AnnotationMetadata;
+import io.qameta.allure.history.HistoryIdGenerator;
 import io.qameta.allure.model.Label;
-import io.qameta.allure.model.Link;
 import io.qameta.allure.model.Status;
 import io.qameta.allure.model.TestResult;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
-import java.lang.annotation.Repeatable;
 import java.lang.reflect.Method;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.qameta.allure.ResultsUtils.getHostName;
 import static io.qameta.allure.ResultsUtils.getStatus;
 import static io.qameta.allure.ResultsUtils.getStatusDetails;
 import static io.qameta.allure.ResultsUtils.getThreadName;
-import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Allure Junit4 listener.
@@ -48,8 +35,23 @@ public class AllureJunit4 extends RunListener {
 
     public static final String MD_5 = "md5";
 
-    private final ThreadLocal<String> testCases
-            = InheritableThreadLocal.withInitial(() -> UUID.randomUUID().toString());
+    private static final Logger LOGGER = LoggerFactory.getLogger(AllureJunit4.class);
+
+    private static final ClassValue<Map<String, Optional<Method>>> TEST_METHODS =
+            new ClassValue<Map<String, Optional<Method>>>() {
+                @Override
+                protected Map<String, Optional<Method>> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * The uuids of running tests by description, removed when the test is finished. JUnit notifies
+     * about the failure with the description of the test, so the correlation doesn't depend on the
+     * thread the listener is called from. Tests with equal descriptions can't be told apart, so only
+     * the first of them running at the same time is reported.
+     */
+    private final Map<Description, String> testCases = new ConcurrentHashMap<>();
 
     private final AllureLifecycle lifecycle;
 
@@ -77,15 +79,21 @@ public class AllureJunit4 extends RunListener {
 
     @Override
     public void testStarted(final Description description) throws Exception {
-        final String uuid = testCases.get();
+        final String uuid = UUID.randomUUID().toString();
+        final String running = testCases.putIfAbsent(description, uuid);
+        if (Objects.nonNull(running)) {
+            LOGGER.warn("Test {} is already running as {}, skip reporting it", description, running);
+            return;
+        }
         final String id = getHistoryId(description);
+        final AnnotationMetadata metadata = getMetadata(description);
 
         final TestResult result = new TestResult()
                 .withUuid(uuid)
                 .withHistoryId(id)
                 .withName(description.getMethodName())
                 .withFullName(String.format("%s.%s", description.getClassName(), description.getMethodName()))
-                .withLinks(getLinks(description))
+                .withLinks(metadata.getLinks())
                 .withLabels(
                         new Label().withName("package").withValue(getPackage(description.getTestClass())),
                         new Label().withName("testClass").withValue(description.getClassName()),
@@ -97,7 +105,7 @@ public class AllureJunit4 extends RunListener {
                         new Label().withName("thread").withValue(getThreadName())
                 );
 
-        result.getLabels().addAll(getLabels(description));
+        result.getLabels().addAll(metadata.getLabels());
         getDisplayName(description).ifPresent(result::setName);
         getLifecycle().scheduleTestCase(result);
         getLifecycle().startTestCase(uuid);
@@ -105,7 +113,10 @@ public class AllureJunit4 extends RunListener {
 
     @Override
     public void testFinished(final Description description) throws Exception {
-        final String uuid = testCases.get();
+        final String uuid = testCases.remove(description);
+        if (Objects.isNull(uuid)) {
+            return;
+        }
         getLifecycle().updateTestCase(uuid, testResult -> {
             if (Objects.isNull(testResult.getStatus())) {
                 testResult.setStatus(Status.PASSED);
@@ -118,7 +129,11 @@ public class AllureJunit4 extends RunListener {
 
     @Override
     public void testFailure(final Failure failure) throws Exception {
-        final String uuid = testCases.get();
+        //failures of class level fixtures are reported with the description of the test class
+        final String uuid = testCases.get(failure.getDescription());
+        if (Objects.isNull(uuid)) {
+            return;
+        }
         getLifecycle().updateTestCase(uuid, testResult -> testResult
                 .withStatus(getStatus(failure.getException()).orElse(null))
                 .withStatusDetails(getStatusDetails(failure.getException()).orElse(null))
@@ -140,90 +155,36 @@ public class AllureJunit4 extends RunListener {
                 .map(DisplayName::value);
     }
 
-    private List<Link> getLinks(final Description result) {
-        return Stream.of(
-                getAnnotationsOnClass(result, io.qameta.allure.Link.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnMethod(result, io.qameta.allure.Link.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnClass(result, io.qameta.allure.Issue.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnMethod(result, io.qameta.allure.Issue.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnClass(result, io.qameta.allure.TmsLink.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnMethod(result, io.qameta.allure.TmsLink.class).stream().map(ResultsUtils::createLink)
-        ).reduce(Stream::concat).orElseGet(Stream::empty).collect(Collectors.toList());
-    }
-
-    private List<Label> getLabels(final Description result) {
-        return Stream.of(
-                getLabels(result, Epic.class, ResultsUtils::createLabel),
-                getLabels(result, Feature.class, ResultsUtils::createLabel),
-                getLabels(result, Story.class, ResultsUtils::createLabel),
-                getLabels(result, Severity.class, ResultsUtils::createLabel),
-                getLabels(result, Owner.class, ResultsUtils::createLabel)
-        ).reduce(Stream::concat).orElseGet(Stream::empty).collect(Collectors.toList());
+    private AnnotationMetadata getMetadata(final Description description) {
+        final Class<?> testClass = description.getTestClass();
+        return findTestMethod(testClass, description.getMethodName())
+                .map(method -> AnnotationMetadata.get(testClass, method))
+                .orElseGet(() -> AnnotationMetadata.create(testClass, new DescriptionAnnotations(description)));
     }
 
-    private <T extends Annotation> Stream<Label> getLabels(final Description result, final Class<T> clazz,
-                                                           final Function<T, Label> extractor) {
-
-        final List<Label> onMethod = getAnnotationsOnMethod(result, clazz).stream()
-                .map(extractor)
-                .collect(Collectors.toList());
-        if (!onMethod.isEmpty()) {
-            return onMethod.stream();
-        }
-        return getAnnotationsOnClass(result, clazz).stream()
-                .map(extractor);
-    }
-
-    private <T extends Annotation> List<T> getAnnotationsOnMethod(final Description result, final Class<T> clazz) {
-        final T annotation = result.getAnnotation(clazz);
-        return Stream.concat(
-                extractRepeatable(result, clazz).stream(),
-                Objects.isNull(annotation) ? Stream.empty() : Stream.of(annotation)
-        ).collect(Collectors.toList());
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T extends Annotation> List<T> extractRepeatable(final Description result, final Class<T> clazz) {
-        if (clazz.isAnnotationPresent(Repeatable.class)) {
-            final Repeatable repeatable = clazz.getAnnotation(Repeatable.class);
-            final Class<? extends Annotation> wrapper = repeatable.value();
-            final Annotation annotation = result.getAnnotation(wrapper);
-            if (Objects.nonNull(annotation)) {
-                try {
-                    final Method value = annotation.getClass().getMethod("value");
-                    final Object annotations = value.invoke(annotation);
-                    return Arrays.asList((T[]) annotations);
-                } catch (Exception e) {
-                    throw new IllegalStateException(e);
-                }
-            }
+    /**
+     * Finds test method by name. Parameterized runners add parameters to the name, like test[0], so the
+     * parameters are stripped before the lookup and each test method is cached only once.
+     */
+    private Optional<Method> findTestMethod(final Class<?> testClass, final String methodName) {
+        if (Objects.isNull(testClass) || Objects.isNull(methodName)) {
+            return Optional.empty();
         }
-        return Collections.emptyList();
+        final int parameters = methodName.indexOf('[');
+        final String name = parameters > 0 ? methodName.substring(0, parameters) : methodName;
+        return TEST_METHODS.get(testClass).computeIfAbsent(name, key -> getPublicMethod(testClass, key));
     }
 
-    private <T extends Annotation> List<T> getAnnotationsOnClass(final Description result, final Class<T> clazz) {
-        return Stream.of(result)
-                .map(Description::getTestClass)
-                .map(testClass -> testClass.getAnnotationsByType(clazz))
-                .flatMap(Stream::of)
-                .collect(Collectors.toList());
+    private static Optional<Method> getPublicMethod(final Class<?> testClass, final String name) {
+        try {
+            return Optional.of(testClass.getMethod(name));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
     }
 
     private String getHistoryId(final Description description) {
-        return md5(description.getClassName() + description.getMethodName());
-    }
-
-    private String md5(final String source) {
-        final byte[] bytes = getMessageDigest().digest(source.getBytes(UTF_8));
-        return new BigInteger(1, bytes).toString(16);
-    }
-
-    private MessageDigest getMessageDigest() {
-        try {
-            return MessageDigest.getInstance(MD_5);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Could not find md5 hashing algorithm", e);
-        }
+        return HistoryIdGenerator.getDefault().generate(description.getClassName() + description.getMethodName());
     }
 
     private String getPackage(final Class<?> testClass) {
@@ -0,0 +1,34 @@
+package io.qameta.allure.junit4;
+
+import org.junit.runner.Description;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+
+/**
+ * Annotations of test described by {@link Description}. Used when test method can't be found
+ * via reflection, e.g. for tests created by custom runners.
+ */
+class DescriptionAnnotations implements AnnotatedElement {
+
+    private final Description description;
+
+    DescriptionAnnotations(final Description description) {
+        this.description = description;
+    }
+
+    @Override
+    public <T extends Annotation> T getAnnotation(final Class<T> annotationClass) {
+        return description.getAnnotation(annotationClass);
+    }
+
+    @Override
+    public Annotation[] getAnnotations() {
+        return description.getAnnotations().toArray(new Annotation[0]);
+    }
+
+    @Override
+    public Annotation[] getDeclaredAnnotations() {
+        return getAnnotations();
+    }
+}
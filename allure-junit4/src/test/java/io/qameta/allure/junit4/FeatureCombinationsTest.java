@@ -5,6 +5,7 @@ import io.qameta.allure.aspects.StepsAspects;
 import io.qameta.allure.junit4.samples.BrokenTest;
 import io.qameta.allure.junit4.samples.FailedTest;
 import io.qameta.allure.junit4.samples.OneTest;
+import io.qameta.allure.junit4.samples.ParallelTests;
 import io.qameta.allure.junit4.samples.TestWithAnnotations;
 import io.qameta.allure.junit4.samples.TestWithSteps;
 import io.qameta.allure.model.Label;
@@ -16,24 +17,28 @@ import io.qameta.allure.model.TestResult;
 import io.qameta.allure.testdata.AllureResultsWriterStub;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.runner.Description;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Request;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class FeatureCombinationsTest {
 
     private JUnitCore core;
     private AllureResultsWriterStub results;
+    private AllureJunit4 listener;
 
     @Before
     public void prepare() {
         results = new AllureResultsWriterStub();
         AllureLifecycle lifecycle = new AllureLifecycle(results);
         StepsAspects.setLifecycle(lifecycle);
-        AllureJunit4 listener = new AllureJunit4(lifecycle);
+        listener = new AllureJunit4(lifecycle);
         core = new JUnitCore();
         core.addListener(listener);
     }
@@ -156,4 +161,38 @@ public class FeatureCombinationsTest {
                 .extracting(Link::getName)
                 .containsExactly("link-1", "link-2", "issue-1", "issue-2", "tms-1", "tms-2");
     }
+
+    @Test
+    @DisplayName("Parallel tests")
+    public void shouldProcessParallelTests() throws Exception {
+        core.run(new ParallelComputer(true, true), ParallelTests.class, OneTest.class);
+        List<TestResult> testResults = results.getTestResults();
+        assertThat(testResults)
+                .hasSize(5)
+                .extracting(TestResult::getFullName, TestResult::getStatus)
+                .containsOnly(
+                        tuple("io.qameta.allure.junit4.samples.ParallelTests.first", Status.PASSED),
+                        tuple("io.qameta.allure.junit4.samples.ParallelTests.second", Status.FAILED),
+                        tuple("io.qameta.allure.junit4.samples.ParallelTests.third", Status.PASSED),
+                        tuple("io.qameta.allure.junit4.samples.ParallelTests.fourth", Status.BROKEN),
+                        tuple("io.qameta.allure.junit4.samples.OneTest.simpleTest", Status.PASSED)
+                );
+        assertThat(testResults)
+                .extracting(TestResult::getUuid)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Tests with equal descriptions")
+    public void shouldReportFirstOfTestsWithEqualDescriptions() throws Exception {
+        listener.testStarted(Description.createTestDescription(OneTest.class, "simpleTest"));
+        listener.testStarted(Description.createTestDescription(OneTest.class, "simpleTest"));
+        listener.testFinished(Description.createTestDescription(OneTest.class, "simpleTest"));
+        listener.testFinished(Description.createTestDescription(OneTest.class, "simpleTest"));
+        List<TestResult> testResults = results.getTestResults();
+        assertThat(testResults)
+                .hasSize(1)
+                .extracting(TestResult::getFullName, TestResult::getStatus)
+                .containsExactly(tuple("io.qameta.allure.junit4.samples.OneTest.simpleTest", Status.PASSED));
+    }
 }
@@ -0,0 +1,30 @@
+package io.qameta.allure.junit4.samples;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelTests {
+
+    @Test
+    public void first() throws Exception {
+        Thread.sleep(50);
+    }
+
+    @Test
+    public void second() throws Exception {
+        Thread.sleep(50);
+        assertThat(true).isFalse();
+    }
+
+    @Test
+    public void third() throws Exception {
+        Thread.sleep(50);
+    }
+
+    @Test
+    public void fourth() throws Exception {
+        Thread.sleep(50);
+        throw new IllegalStateException("Broken");
+    }
+}
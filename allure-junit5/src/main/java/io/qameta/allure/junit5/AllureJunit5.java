@@ -0,0 +1,252 @@
+package io.qameta.allure.junit5;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.ResultsUtils;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.qameta.allure.ResultsUtils.getThreadName;
+
+/**
+ * Allure JUnit Platform listener. Maps containers of the test plan (engines, classes, test templates
+ * and factories) to test result containers and tests to test results.
+ * <p>
+ * The listener is thread safe: with parallel execution JUnit Platform notifies about each test on
+ * the thread that runs it, all the state is correlated by the unique id of test identifier.
+ * <p>
+ * Results are written as soon as each test finishes, and containers are written in chunks of
+ * {@value #DEFAULT_CONTAINER_CHUNK_SIZE} children (see {@link #ALLURE_JUNIT5_CONTAINER_CHUNK_SIZE}),
+ * so the memory doesn't depend on the number of dynamic tests produced by a test factory.
+ */
+public class AllureJunit5 implements TestExecutionListener {
+
+    /**
+     * The maximum number of children of container. The container with more children is written
+     * in several chunks with the same name.
+     */
+    public static final String ALLURE_JUNIT5_CONTAINER_CHUNK_SIZE = "allure.junit5.containerChunkSize";
+
+    private static final int DEFAULT_CONTAINER_CHUNK_SIZE = 1000;
+
+    /**
+     * The metadata of tests by unique id, computed when the test plan execution starts.
+     */
+    private final Map<String, TestMetadata> metadata = new ConcurrentHashMap<>();
+
+    /**
+     * The uuids of running tests by unique id, removed when the execution is finished.
+     */
+    private final Map<String, String> uuids = new ConcurrentHashMap<>();
+
+    /**
+     * The running containers by unique id, removed when the execution is finished.
+     */
+    private final Map<String, ContainerChunks> containers = new ConcurrentHashMap<>();
+
+    private final AllureLifecycle lifecycle;
+
+    private final int containerChunkSize = Math.max(1,
+            Integer.getInteger(ALLURE_JUNIT5_CONTAINER_CHUNK_SIZE, DEFAULT_CONTAINER_CHUNK_SIZE));
+
+    private volatile TestPlan testPlan;
+
+    public AllureJunit5() {
+        this(Allure.getLifecycle());
+    }
+
+    public AllureJunit5(final AllureLifecycle lifecycle) {
+        this.lifecycle = lifecycle;
+    }
+
+    public AllureLifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    @Override
+    public void testPlanExecutionStarted(final TestPlan plan) {
+        testPlan = plan;
+        plan.getRoots().forEach(root -> plan.getDescendants(root).stream()
+                .filter(TestIdentifier::isTest)
+                .forEach(identifier -> metadata.put(identifier.getUniqueId(), TestMetadata.create(identifier))));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(final TestPlan plan) {
+        testPlan = null;
+        metadata.clear();
+    }
+
+    @Override
+    public void executionStarted(final TestIdentifier identifier) {
+        final String uuid = UUID.randomUUID().toString();
+        if (identifier.isTest()) {
+            startTestCase(identifier, uuid);
+        } else {
+            startTestContainer(identifier.getDisplayName(), uuid);
+        }
+        identifier.getParentId().ifPresent(parentId -> addChild(parentId, uuid));
+        if (identifier.isTest()) {
+            uuids.put(identifier.getUniqueId(), uuid);
+        } else {
+            containers.put(identifier.getUniqueId(), new ContainerChunks(identifier.getDisplayName(), uuid));
+        }
+    }
+
+    @Override
+    public void executionFinished(final TestIdentifier identifier, final TestExecutionResult result) {
+        final StatusDetails details = result.getThrowable()
+                .flatMap(ResultsUtils::getStatusDetails)
+                .orElse(null);
+        stop(identifier, getStatus(result), details);
+    }
+
+    /**
+     * Skipped containers are reported without children, so the children are reported as skipped as well.
+     */
+    @Override
+    public void executionSkipped(final TestIdentifier identifier, final String reason) {
+        executionStarted(identifier);
+        final TestPlan plan = testPlan;
+        if (identifier.isContainer() && Objects.nonNull(plan)) {
+            plan.getChildren(identifier).forEach(child -> executionSkipped(child, reason));
+        }
+        stop(identifier, Status.SKIPPED, new StatusDetails().withMessage(reason));
+    }
+
+    private void startTestContainer(final String name, final String uuid) {
+        getLifecycle().startTestContainer(new TestResultContainer()
+                .withUuid(uuid)
+                .withName(name));
+    }
+
+    private void startTestCase(final TestIdentifier identifier, final String uuid) {
+        final TestMetadata data = metadata.computeIfAbsent(identifier.getUniqueId(),
+                key -> TestMetadata.create(identifier));
+        final List<Label> labels = new ArrayList<>(data.getLabels());
+        labels.add(new Label().withName("thread").withValue(getThreadName()));
+        final TestResult result = new TestResult()
+                .withUuid(uuid)
+                .withHistoryId(data.getHistoryId())
+                .withName(data.getName())
+                .withFullName(data.getFullName())
+                .withStatusDetails(new StatusDetails()
+                        .withFlaky(data.isFlaky())
+                        .withMuted(data.isMuted()))
+                .withLinks(new ArrayList<>(data.getLinks()))
+                .withLabels(labels);
+        getLifecycle().scheduleTestCase(result);
+        getLifecycle().startTestCase(uuid);
+    }
+
+    private void stop(final TestIdentifier identifier, final Status status, final StatusDetails details) {
+        if (!identifier.isTest()) {
+            final ContainerChunks chunks = containers.remove(identifier.getUniqueId());
+            if (Objects.nonNull(chunks)) {
+                writeTestContainer(chunks.getUuid());
+            }
+            return;
+        }
+        final String uuid = uuids.remove(identifier.getUniqueId());
+        if (Objects.nonNull(uuid)) {
+            metadata.remove(identifier.getUniqueId());
+            getLifecycle().updateTestCase(uuid, result -> {
+                result.setStatus(status);
+                if (Objects.nonNull(details)) {
+                    result.setStatusDetails(details
+                            .withFlaky(result.getStatusDetails().isFlaky())
+                            .withMuted(result.getStatusDetails().isMuted()));
+                }
+            });
+            getLifecycle().stopTestCase(uuid);
+            getLifecycle().writeTestCase(uuid);
+        }
+    }
+
+    private void writeTestContainer(final String uuid) {
+        getLifecycle().stopTestContainer(uuid);
+        getLifecycle().writeTestContainer(uuid);
+    }
+
+    /**
+     * Adds child to the running container. The full chunk of container is written here, outside of
+     * the chunks lock.
+     */
+    private void addChild(final String parentId, final String uuid) {
+        final ContainerChunks chunks = containers.get(parentId);
+        if (Objects.nonNull(chunks)) {
+            final String full = chunks.add(uuid);
+            if (Objects.nonNull(full)) {
+                writeTestContainer(full);
+            }
+        }
+    }
+
+    private static Status getStatus(final TestExecutionResult result) {
+        switch (result.getStatus()) {
+            case SUCCESSFUL:
+                return Status.PASSED;
+            case ABORTED:
+                return Status.SKIPPED;
+            default:
+                return result.getThrowable()
+                        .flatMap(ResultsUtils::getStatus)
+                        .orElse(Status.BROKEN);
+        }
+    }
+
+    /**
+     * The current chunk of running container. Children of the same container can start in parallel,
+     * so the chunk is changed under its own lock. The next chunk is started when a child doesn't fit
+     * into the current one, so there are no empty chunks.
+     */
+    private final class ContainerChunks {
+
+        private final String name;
+
+        private String uuid;
+
+        private int size;
+
+        ContainerChunks(final String name, final String uuid) {
+            this.name = name;
+            this.uuid = uuid;
+        }
+
+        /**
+         * Adds child to the current chunk.
+         *
+         * @return the uuid of the previous chunk that is full and should be written, or null.
+         */
+        synchronized String add(final String child) {
+            String full = null;
+            if (size >= containerChunkSize) {
+                full = uuid;
+                uuid = UUID.randomUUID().toString();
+                size = 0;
+                startTestContainer(name, uuid);
+            }
+            getLifecycle().updateTestContainer(uuid, container -> container.getChildren().add(child));
+            size++;
+            return full;
+        }
+
+        synchronized String getUuid() {
+            return uuid;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.qameta.allure.junit5;
+
+import io.qameta.allure.AnnotationMetadata;
+import io.qameta.allure.history.HistoryIdGenerator;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Link;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.qameta.allure.ResultsUtils.getHostName;
+
+/**
+ * The static part of test result: names, labels, links and history id. Computed once per test
+ * identifier, so the execution events only add the dynamic part (status, timings, thread).
+ */
+final class TestMetadata {
+
+    private final String name;
+
+    private final String fullName;
+
+    private final String historyId;
+
+    private final List<Label> labels;
+
+    private final List<Link> links;
+
+    private final boolean flaky;
+
+    private final boolean muted;
+
+    private TestMetadata(final TestIdentifier identifier, final MethodSource source,
+                         final AnnotationMetadata annotations) {
+        this.name = identifier.getDisplayName();
+        this.fullName = Objects.isNull(source)
+                ? identifier.getUniqueId()
+                : String.format("%s.%s", source.getClassName(), source.getMethodName());
+        this.historyId = HistoryIdGenerator.getDefault().generate(identifier.getUniqueId());
+        final List<Label> result = new ArrayList<>();
+        if (Objects.nonNull(source)) {
+            final String className = source.getClassName();
+            final int lastDot = className.lastIndexOf('.');
+            result.add(new Label().withName("package").withValue(lastDot < 0 ? "" : className.substring(0, lastDot)));
+            result.add(new Label().withName("testClass").withValue(className));
+            result.add(new Label().withName("testMethod").withValue(source.getMethodName()));
+            result.add(new Label().withName("suite").withValue(className));
+        }
+        result.add(new Label().withName("host").withValue(getHostName()));
+        if (Objects.nonNull(annotations)) {
+            result.addAll(annotations.getLabels());
+        }
+        this.labels = Collections.unmodifiableList(result);
+        this.links = Objects.isNull(annotations) ? Collections.emptyList() : annotations.getLinks();
+        this.flaky = Objects.nonNull(annotations) && annotations.isFlaky();
+        this.muted = Objects.nonNull(annotations) && annotations.isMuted();
+    }
+
+    /**
+     * Computes the metadata of given test. Allure annotations are resolved for tests with method source only.
+     */
+    static TestMetadata create(final TestIdentifier identifier) {
+        final MethodSource source = identifier.getSource()
+                .filter(MethodSource.class::isInstance)
+                .map(MethodSource.class::cast)
+                .orElse(null);
+        if (Objects.isNull(source)) {
+            return new TestMetadata(identifier, null, null);
+        }
+        final Optional<Class<?>> testClass = loadClass(source.getClassName());
+        final AnnotationMetadata annotations = testClass
+                .map(type -> findMethod(type, source)
+                        .map(method -> AnnotationMetadata.get(type, method))
+                        .orElseGet(() -> AnnotationMetadata.get(type)))
+                .orElse(null);
+        return new TestMetadata(identifier, source, annotations);
+    }
+
+    private static Optional<Class<?>> loadClass(final String className) {
+        try {
+            return Optional.of(Class.forName(className, false, Thread.currentThread().getContextClassLoader()));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Method> findMethod(final Class<?> testClass, final MethodSource source) {
+        final List<Method> candidates = new ArrayList<>();
+        for (Class<?> type = testClass; Objects.nonNull(type); type = type.getSuperclass()) {
+            Stream.of(type.getDeclaredMethods())
+                    .filter(method -> method.getName().equals(source.getMethodName()))
+                    .forEach(candidates::add);
+        }
+        return candidates.stream()
+                .filter(method -> Objects.equals(getParameterTypes(method), source.getMethodParameterTypes()))
+                .findFirst()
+                .map(Optional::of)
+                .orElseGet(() -> candidates.stream().findFirst());
+    }
+
+    private static String getParameterTypes(final Method method) {
+        return Stream.of(method.getParameterTypes())
+                .map(Class::getName)
+                .collect(Collectors.joining(", "));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getFullName() {
+        return fullName;
+    }
+
+    String getHistoryId() {
+        return historyId;
+    }
+
+    List<Label> getLabels() {
+        return labels;
+    }
+
+    List<Link> getLinks() {
+        return links;
+    }
+
+    boolean isFlaky() {
+        return flaky;
+    }
+
+    boolean isMuted() {
+        return muted;
+    }
+}
@@ -0,0 +1,156 @@
+package io.qameta.allure.junit5;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.junit5.samples.DisplayNameTests;
+import io.qameta.allure.junit5.samples.DynamicTests;
+import io.qameta.allure.junit5.samples.MixedTests;
+import io.qameta.allure.junit5.samples.ParallelTests;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.testdata.AllureResultsWriterStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+class AllureJunit5Test {
+
+    private AllureResultsWriterStub results;
+
+    private Launcher launcher;
+
+    @BeforeEach
+    void setUp() {
+        results = new AllureResultsWriterStub();
+        launcher = createLauncher();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(AllureJunit5.ALLURE_JUNIT5_CONTAINER_CHUNK_SIZE);
+    }
+
+    @Test
+    void shouldSetDisplayName() {
+        launcher.execute(request().selectors(selectClass(DisplayNameTests.class)).build());
+
+        assertThat(results.getTestResults())
+                .extracting(TestResult::getName, TestResult::getFullName)
+                .containsExactly(tuple("Test 1", DisplayNameTests.class.getName() + ".myFirstTest"));
+    }
+
+    @Test
+    void shouldProcessStatuses() {
+        launcher.execute(request().selectors(selectClass(MixedTests.class)).build());
+
+        assertThat(results.getTestResults())
+                .extracting(TestResult::getName, TestResult::getStatus)
+                .containsOnly(
+                        tuple("test2()", Status.SKIPPED),
+                        tuple("test3()", Status.PASSED),
+                        tuple("failingTest()", Status.BROKEN)
+                );
+    }
+
+    @Test
+    void shouldLinkTestsToContainers() {
+        launcher.execute(request().selectors(selectClass(MixedTests.class)).build());
+
+        final List<String> uuids = results.getTestResults().stream()
+                .map(TestResult::getUuid)
+                .collect(Collectors.toList());
+        assertThat(results.getTestContainers())
+                .filteredOn(container -> "MixedTests".equals(container.getName()))
+                .flatExtracting(TestResultContainer::getChildren)
+                .containsOnlyElementsOf(uuids)
+                .hasSize(3);
+    }
+
+    @Test
+    void shouldProcessParallelTests() {
+        final LauncherDiscoveryRequest request = request()
+                .selectors(selectClass(ParallelTests.class), selectClass(MixedTests.class))
+                .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+                .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+                .build();
+        launcher.execute(request);
+
+        final List<TestResult> testResults = results.getTestResults();
+        assertThat(testResults)
+                .filteredOn(result -> result.getFullName().startsWith(ParallelTests.class.getName()))
+                .extracting(TestResult::getName, TestResult::getStatus)
+                .containsOnly(
+                        tuple("first()", Status.PASSED),
+                        tuple("second()", Status.FAILED),
+                        tuple("third()", Status.PASSED),
+                        tuple("fourth()", Status.BROKEN)
+                );
+        assertThat(testResults)
+                .hasSize(7)
+                .extracting(TestResult::getHistoryId)
+                .doesNotHaveDuplicates();
+        assertThat(testResults)
+                .filteredOn(result -> result.getFullName().startsWith(ParallelTests.class.getName()))
+                .flatExtracting(TestResult::getLabels)
+                .extracting(Label::getName, Label::getValue)
+                .contains(tuple("feature", "parallel"));
+    }
+
+    @Test
+    void shouldWriteDynamicTestsContainerInChunks() {
+        System.setProperty(AllureJunit5.ALLURE_JUNIT5_CONTAINER_CHUNK_SIZE, "10");
+        launcher = createLauncher();
+        launcher.execute(request().selectors(selectClass(DynamicTests.class)).build());
+
+        final List<TestResult> testResults = results.getTestResults();
+        assertThat(testResults)
+                .hasSize(25)
+                .extracting(TestResult::getStatus)
+                .containsOnly(Status.PASSED);
+        final List<TestResultContainer> chunks = results.getTestContainers().stream()
+                .filter(container -> "factory()".equals(container.getName()))
+                .collect(Collectors.toList());
+        assertThat(chunks)
+                .extracting(container -> container.getChildren().size())
+                .containsExactly(10, 10, 5);
+        assertThat(chunks)
+                .flatExtracting(TestResultContainer::getChildren)
+                .hasSize(25)
+                .doesNotHaveDuplicates()
+                .containsOnlyElementsOf(testResults.stream()
+                        .map(TestResult::getUuid)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldNotWriteEmptyChunks() {
+        System.setProperty(AllureJunit5.ALLURE_JUNIT5_CONTAINER_CHUNK_SIZE, "5");
+        launcher = createLauncher();
+        launcher.execute(request().selectors(selectClass(DynamicTests.class)).build());
+
+        assertThat(results.getTestContainers())
+                .filteredOn(container -> "factory()".equals(container.getName()))
+                .extracting(container -> container.getChildren().size())
+                .containsExactly(5, 5, 5, 5, 5);
+    }
+
+    private Launcher createLauncher() {
+        return LauncherFactory.create(LauncherConfig.builder()
+                .enableTestExecutionListenerAutoRegistration(false)
+                .addTestExecutionListeners(new AllureJunit5(new AllureLifecycle(results)))
+                .build());
+    }
+}
@@ -0,0 +1,18 @@
+package io.qameta.allure.junit5.samples;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DisplayNameTests {
+
+    @Test
+    @DisplayName("Test 1")
+    void myFirstTest(TestInfo testInfo) {
+        assertEquals(2, 2, "1 + 1 should equal 2");
+        assertEquals("Test 1", testInfo.getDisplayName(), () -> "TestInfo is injected correctly");
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.qameta.allure.junit5.samples;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public class DynamicTests {
+
+    @TestFactory
+    Stream<DynamicTest> factory() {
+        return IntStream.range(0, 25)
+                .mapToObj(i -> dynamicTest("dynamic " + i, () -> {
+                }));
+    }
+}
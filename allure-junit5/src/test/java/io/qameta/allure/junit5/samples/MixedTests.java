@@ -0,0 +1,24 @@
+package io.qameta.allure.junit5.samples;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MixedTests {
+
+    @Test
+    @Disabled
+    void test2() {
+        assertEquals(2, 1, "2 is not equal to 1");
+    }
+
+    @Test
+    void test3() throws InterruptedException {
+    }
+
+    @Test
+    void failingTest() {
+        throw new RuntimeException("Failure");
+    }
+}
@@ -0,0 +1,32 @@
+package io.qameta.allure.junit5.samples;
+
+import io.qameta.allure.Feature;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Feature("parallel")
+public class ParallelTests {
+
+    @Test
+    void first() throws Exception {
+        Thread.sleep(50);
+    }
+
+    @Test
+    void second() throws Exception {
+        Thread.sleep(50);
+        assertEquals(2, 1, "2 is not equal to 1");
+    }
+
+    @Test
+    void third() throws Exception {
+        Thread.sleep(50);
+    }
+
+    @Test
+    void fourth() throws Exception {
+        Thread.sleep(50);
+        throw new IllegalStateException("Broken");
+    }
+}
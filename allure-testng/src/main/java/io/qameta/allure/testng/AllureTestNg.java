@@ -2,25 +2,23 @@ package io.qameta.allure.testng;
 
 import io.qameta.allure.Allure;
 import io.qameta.allure.AllureLifecycle;
-import io.qameta.allure.Epic;
-import io.qameta.allure.Feature;
-import io.qameta.allure.Flaky;
-import io.qameta.allure.Muted;
-import io.qameta.allure.Owner;
-import io.qameta.allure.ResultsUtils;
-import io.qameta.allure.Severity;
-import io.qameta.allure.Story;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.AnnotationMetadata;
+import io.qameta.allure.RoutingResultsWriter;
+import io.qameta.allure.history.HistoryIdGenerator;
 import io.qameta.allure.model.FixtureResult;
 import io.qameta.allure.model.Label;
-import io.qameta.allure.model.Link;
 import io.qameta.allure.model.Parameter;
 import io.qameta.allure.model.Stage;
 import io.qameta.allure.model.Status;
 import io.qameta.allure.model.StatusDetails;
 import io.qameta.allure.model.TestResult;
 import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.parameter.ParameterRenderer;
 import org.testng.IAttributes;
 import org.testng.IClass;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
 import org.testng.IInvokedMethod;
 import org.testng.IInvokedMethodListener2;
 import org.testng.ISuite;
@@ -34,21 +32,19 @@ import org.testng.internal.ConstructorOrMethod;
 import org.testng.xml.XmlSuite;
 import org.testng.xml.XmlTest;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Executable;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -58,8 +54,6 @@ import static io.qameta.allure.ResultsUtils.getHostName;
 import static io.qameta.allure.ResultsUtils.getStatus;
 import static io.qameta.allure.ResultsUtils.getStatusDetails;
 import static io.qameta.allure.ResultsUtils.getThreadName;
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.Map.Entry.comparingByValue;
 
 /**
  * Allure TestNG listener.
@@ -68,37 +62,92 @@ import static java.util.Map.Entry.comparingByValue;
         "PMD.ExcessiveImports", "PMD.TooManyMethods", "PMD.GodClass",
         "ClassFanOutComplexity", "ClassDataAbstractionCoupling"
 })
-public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMethodListener2 {
+public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMethodListener2, IHookable {
+
+    /**
+     * Enables grouping of all before/after methods of the test invocation into one container,
+     * instead of the container per fixture invocation.
+     */
+    public static final String ALLURE_TESTNG_COALESCE_FIXTURES = "allure.testng.coalesceFixtures";
 
     private static final String ALLURE_UUID = "ALLURE_UUID";
-    private static final String MD_5 = "md5";
+
+    private static final String ALLURE_ROUTE = "ALLURE_ROUTE";
+
+    /**
+     * The uuids of started test results, removed when the test result is written.
+     */
+    private final Map<ResultKey, String> testResults = new ConcurrentHashMap<>();
+
+    /**
+     * The uuids of running configuration methods, removed when the fixture is stopped.
+     */
+    private final Map<ResultKey, String> fixtures = new ConcurrentHashMap<>();
+
+    /**
+     * The uuids of fake containers around running before/after methods.
+     */
+    private final Map<ResultKey, String> fixtureContainers = new ConcurrentHashMap<>();
+
+    private final boolean coalesceFixtures = Boolean.getBoolean(ALLURE_TESTNG_COALESCE_FIXTURES);
+
+    /**
+     * The test uuid to the container with all before/after methods of the test, if fixtures are coalesced.
+     * The container is written when the next test starts on the same thread or when the test context
+     * is finished.
+     */
+    private final Map<String, TestContainer> testContainers = new ConcurrentHashMap<>();
+
+    /**
+     * The test uuid to the stopped containers of its before methods, if retries are collapsed. The containers
+     * are written when the test is stopped, so the attempts that are retried can be unlinked from them.
+     */
+    private final Map<String, List<String>> beforeContainers = new ConcurrentHashMap<>();
 
     /**
-     * Store current testng result uuid to attach before/after methods into.
+     * The uuid of the test that will be started after before methods on this thread. TestNG runs
+     * before methods, the test invocation and after methods on the same thread, so thread locals
+     * are used for that link only. Not inheritable: threads created by the test (like timeOut
+     * threads) should never change it.
      */
-    private final ThreadLocal<Current> currentTestResult
-            = InheritableThreadLocal.withInitial(Current::new);
+    private final ThreadLocal<String> nextTestResult = new ThreadLocal<>();
 
     /**
-     * Store current container uuid for fake containers around before/after methods.
+     * The uuid of the last test finished on this thread to attach after methods to.
      */
-    private final ThreadLocal<String> currentTestContainer
-            = InheritableThreadLocal.withInitial(() -> UUID.randomUUID().toString());
+    private final ThreadLocal<String> lastTestResult = new ThreadLocal<>();
 
     /**
-     * Store uuid for current executable item to catch steps and attachments.
+     * The held attempts of retried tests, null if retries are not collapsed.
      */
-    private final ThreadLocal<String> currentExecutable
-            = InheritableThreadLocal.withInitial(() -> UUID.randomUUID().toString());
+    private final RetriedResults retries = RetriedResults.fromSystemProperties();
+
+    /**
+     * The pending results of tests skipped without start, null if compact skips are disabled.
+     */
+    private final CompactSkips compactSkips = CompactSkips.fromSystemProperties();
 
     private final AllureLifecycle lifecycle;
 
+    /**
+     * The writer to route results of each suite to, null if the lifecycle writer doesn't support routing.
+     */
+    private final RoutingResultsWriter router;
+
+    /**
+     * The routes given to suites, so suites with the same name (e.g. run by different TestNG instances)
+     * never share the route.
+     */
+    private final Set<String> routes = ConcurrentHashMap.newKeySet();
+
     public AllureTestNg(final AllureLifecycle lifecycle) {
         this.lifecycle = lifecycle;
+        this.router = getRouter(lifecycle);
     }
 
     public AllureTestNg() {
         this.lifecycle = Allure.getLifecycle();
+        this.router = getRouter(lifecycle);
     }
 
     public AllureLifecycle getLifecycle() {
@@ -107,6 +156,7 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
 
     @Override
     public void onStart(final ISuite suite) {
+        route(suite);
         final TestResultContainer result = new TestResultContainer()
                 .withUuid(getUniqueUuid(suite))
                 .withName(suite.getName())
@@ -116,6 +166,7 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
 
     @Override
     public void onStart(final ITestContext context) {
+        route(context.getSuite());
         final String parentUuid = getUniqueUuid(context.getSuite());
         final String uuid = getUniqueUuid(context);
         final TestResultContainer container = new TestResultContainer()
@@ -127,25 +178,68 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
 
     @Override
     public void onFinish(final ISuite suite) {
+        route(suite);
         final String uuid = getUniqueUuid(suite);
         getLifecycle().stopTestContainer(uuid);
         getLifecycle().writeTestContainer(uuid);
+        if (Objects.nonNull(router)) {
+            router.finish(getRoute(suite));
+            router.clearRoute();
+        }
     }
 
     @Override
     public void onFinish(final ITestContext context) {
+        route(context.getSuite());
+        lastTestResult.remove();
         final String uuid = getUniqueUuid(context);
+        if (Objects.nonNull(retries)) {
+            retries.releaseAll(uuid).forEach(this::writeAttempts);
+        }
+        if (Objects.nonNull(compactSkips)) {
+            writeSkipped(uuid, compactSkips.release(uuid));
+        }
+        testContainers.entrySet().stream()
+                .filter(entry -> uuid.equals(entry.getValue().getContextUuid()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(this::writeTestContainer);
         getLifecycle().stopTestContainer(uuid);
         getLifecycle().writeTestContainer(uuid);
     }
 
     @Override
     public void onTestStart(final ITestResult testResult) {
-        Current current = currentTestResult.get();
-        if (current.isStarted()) {
-            current = refreshContext();
+        route(testResult.getTestContext().getSuite());
+        testResults.put(new ResultKey(testResult), startTestCase(testResult));
+    }
+
+    /**
+     * Runs the test method. The test with timeOut is run on the thread created by TestNG, so the test
+     * case is set as current for that thread explicitly. TestNG doesn't call this method for test classes
+     * that implement {@link IHookable} themselves.
+     */
+    @Override
+    public void run(final IHookCallBack callBack, final ITestResult testResult) {
+        final String uuid = testResults.get(new ResultKey(testResult));
+        final boolean foreign = Objects.nonNull(uuid) && !getLifecycle().getCurrentTestCase().isPresent();
+        if (foreign) {
+            getLifecycle().setCurrentTestCase(uuid);
         }
-        current.test();
+        try {
+            callBack.runTestMethod(testResult);
+        } finally {
+            if (foreign) {
+                getLifecycle().clearCurrentTestCase();
+            }
+        }
+    }
+
+    private String startTestCase(final ITestResult testResult) {
+        final String uuid = Optional.ofNullable(nextTestResult.get())
+                .orElseGet(this::createTestUuid);
+        nextTestResult.remove();
+        lastTestResult.set(uuid);
         final String parentUuid = getUniqueUuid(testResult.getTestContext());
         final ITestNGMethod method = testResult.getMethod();
         final ITestClass testClass = method.getTestClass();
@@ -165,79 +259,168 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
                 new Label().withName("host").withValue(getHostName()),
                 new Label().withName("thread").withValue(getThreadName())
         ));
-        labels.addAll(getLabels(testResult));
+        final AnnotationMetadata metadata = getMetadata(testResult);
+        labels.addAll(metadata.getLabels());
         final TestResult result = new TestResult()
-                .withUuid(current.getUuid())
-                .withHistoryId(getHistoryId(method.getQualifiedName(), Collections.emptyMap()))
-                .withName(firstNonEmpty(
-                        method.getDescription(),
-                        method.getMethodName(),
-                        method.getQualifiedName()).orElse("Unknown"))
+                .withUuid(uuid)
+                .withName(getTestName(method))
                 .withFullName(testResult.getMethod().getQualifiedName())
                 .withStatusDetails(new StatusDetails()
-                        .withFlaky(isFlaky(testResult))
-                        .withMuted(isMuted(testResult)))
+                        .withFlaky(metadata.isFlaky())
+                        .withMuted(metadata.isMuted()))
                 .withParameters(getParameters(testResult))
-                .withLinks(getLinks(testResult))
+                .withLinks(metadata.getLinks())
                 .withLabels(labels);
         getLifecycle().scheduleTestCase(parentUuid, result);
-        getLifecycle().startTestCase(current.getUuid());
+        getLifecycle().startTestCase(uuid);
+        return uuid;
     }
 
     @Override
     public void onTestSuccess(final ITestResult testResult) {
-        final Current current = currentTestResult.get();
-        current.after();
-        getLifecycle().updateTestCase(current.getUuid(), setStatus(Status.PASSED));
-        getLifecycle().stopTestCase(current.getUuid());
-        getLifecycle().writeTestCase(current.getUuid());
+        route(testResult.getTestContext().getSuite());
+        stopTestCase(testResult, setStatus(Status.PASSED));
     }
 
     @Override
     public void onTestFailure(final ITestResult result) {
-        Current current = currentTestResult.get();
-
-        if (current.isAfter()) {
-            current = refreshContext();
-        }
-
-        //if testng has failed without any setup
-        if (!current.isStarted()) {
-            createTestResultForTestWithoutSetup(result);
-        }
-
-        current.after();
+        route(result.getTestContext().getSuite());
         final Throwable throwable = result.getThrowable();
         final Status status = getStatus(throwable).orElse(Status.BROKEN);
         final StatusDetails details = getStatusDetails(throwable).orElse(null);
-        getLifecycle().updateTestCase(current.getUuid(), setStatus(status, details));
-        getLifecycle().stopTestCase(current.getUuid());
-        getLifecycle().writeTestCase(current.getUuid());
+        stopTestCase(result, setStatus(status, details));
     }
 
     @Override
     public void onTestSkipped(final ITestResult result) {
-        Current current = currentTestResult.get();
+        route(result.getTestContext().getSuite());
+        if (Objects.nonNull(compactSkips) && isSkippedWithoutStart(result)) {
+            skipTestCase(result);
+            return;
+        }
+        final StatusDetails details = getStatusDetails(result.getThrowable()).orElse(null);
+        stopTestCase(result, setStatus(Status.SKIPPED, details));
+    }
 
-        //testng is being skipped as dependent on failed testng, closing context for previous testng here
-        if (current.isAfter()) {
-            current = refreshContext();
+    /**
+     * Returns true if the test is skipped before start and no fixtures are linked to it.
+     */
+    private boolean isSkippedWithoutStart(final ITestResult testResult) {
+        return !testResults.containsKey(new ResultKey(testResult)) && Objects.isNull(nextTestResult.get());
+    }
+
+    /**
+     * Creates compact result for the test skipped without start: only grouping labels, shared status
+     * details of the skip cause. The results are written in batches.
+     */
+    private void skipTestCase(final ITestResult testResult) {
+        final ITestNGMethod method = testResult.getMethod();
+        final long now = System.currentTimeMillis();
+        final TestResult result = new TestResult()
+                .withUuid(UUID.randomUUID().toString())
+                .withHistoryId(HistoryIdGenerator.getDefault()
+                        .generate(method.getQualifiedName(), getParameters(testResult)))
+                .withName(getTestName(method))
+                .withFullName(method.getQualifiedName())
+                .withStatus(Status.SKIPPED)
+                .withStatusDetails(compactSkips.getStatusDetails(testResult.getThrowable(),
+                        cause -> getStatusDetails(cause).orElse(null)))
+                .withStage(Stage.FINISHED)
+                .withStart(now)
+                .withStop(now)
+                .withLabels(compactSkips.getLabels(method.getTestClass(), AllureTestNg::getGroupingLabels));
+        final String contextUuid = getUniqueUuid(testResult.getTestContext());
+        writeSkipped(contextUuid, compactSkips.add(contextUuid, result));
+    }
+
+    private void writeSkipped(final String contextUuid, final List<TestResult> batch) {
+        if (!batch.isEmpty()) {
+            getLifecycle().writeTestCases(contextUuid, batch);
         }
+    }
 
-        //if testng was skipped without any setup
-        if (!current.isStarted()) {
-            createTestResultForTestWithoutSetup(result);
+    private void stopTestCase(final ITestResult testResult, final Consumer<TestResult> update) {
+        //the test can fail or be skipped without start, e.g. if it depends on failed test
+        final String started = testResults.remove(new ResultKey(testResult));
+        final String uuid = Optional.ofNullable(started)
+                .orElseGet(() -> startTestCase(testResult));
+        getLifecycle().updateTestCase(uuid, update.andThen(AllureTestNg::setHistoryId));
+        getLifecycle().stopTestCase(uuid);
+        if (Objects.nonNull(retries)) {
+            final String contextUuid = getUniqueUuid(testResult.getTestContext());
+            final String historyId = getHistoryId(uuid);
+            if (retries.isRetried(testResult, Objects.nonNull(started))) {
+                //TestNG reports retried attempts as skipped, keep the actual status of the attempt
+                final Throwable throwable = testResult.getThrowable();
+                getLifecycle().updateTestCase(uuid, result -> result
+                        .withStatus(getStatus(throwable).orElse(Status.BROKEN)));
+                retries.hold(contextUuid, historyId, uuid);
+                unlinkAttempt(contextUuid, uuid);
+                return;
+            }
+            writeBeforeContainers(uuid, false);
+            collapseAttempts(uuid, retries.release(contextUuid, historyId));
+        }
+        getLifecycle().writeTestCase(uuid);
+    }
+
+    /**
+     * Removes the retried attempt from the children of its context and fixture containers, since the attempt
+     * is never written on its own. The after methods of the attempt get the container without children.
+     */
+    private void unlinkAttempt(final String contextUuid, final String uuid) {
+        getLifecycle().updateTestContainer(contextUuid, container -> container.getChildren().remove(uuid));
+        writeBeforeContainers(uuid, true);
+        final TestContainer coalesced = testContainers.remove(uuid);
+        if (Objects.nonNull(coalesced)) {
+            getLifecycle().updateTestContainer(coalesced.getUuid(),
+                    container -> container.getChildren().remove(uuid));
+            getLifecycle().stopTestContainer(coalesced.getUuid());
+            getLifecycle().writeTestContainer(coalesced.getUuid());
+        }
+        if (uuid.equals(lastTestResult.get())) {
+            lastTestResult.remove();
         }
-        current.after();
-        final StatusDetails details = getStatusDetails(result.getThrowable()).orElse(null);
-        getLifecycle().updateTestCase(current.getUuid(), setStatus(Status.SKIPPED, details));
-        getLifecycle().stopTestCase(current.getUuid());
-        getLifecycle().writeTestCase(current.getUuid());
     }
 
-    private void createTestResultForTestWithoutSetup(final ITestResult result) {
-        onTestStart(result);
-        currentTestResult.remove();
+    private void writeBeforeContainers(final String testUuid, final boolean unlink) {
+        final List<String> containers = beforeContainers.remove(testUuid);
+        if (Objects.isNull(containers)) {
+            return;
+        }
+        containers.forEach(containerUuid -> {
+            if (unlink) {
+                getLifecycle().updateTestContainer(containerUuid,
+                        container -> container.getChildren().remove(testUuid));
+            }
+            getLifecycle().writeTestContainer(containerUuid);
+        });
+    }
+
+    /**
+     * Writes the last of held attempts of the test that was never retried, with all previous attempts
+     * collapsed into it.
+     */
+    private void writeAttempts(final List<String> attempts) {
+        final String uuid = attempts.get(attempts.size() - 1);
+        collapseAttempts(uuid, attempts.subList(0, attempts.size() - 1));
+        getLifecycle().writeTestCase(uuid);
+    }
+
+    private void collapseAttempts(final String uuid, final List<String> attempts) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        final List<TestResult> superseded = attempts.stream()
+                .map(getLifecycle()::removeTestCase)
+                .collect(Collectors.toList());
+        getLifecycle().updateTestCase(uuid, result -> retries.collapse(result, superseded));
+    }
+
+    private String getHistoryId(final String uuid) {
+        final AtomicReference<String> historyId = new AtomicReference<>();
+        getLifecycle().updateTestCase(uuid, result -> historyId.set(result.getHistoryId()));
+        return historyId.get();
     }
 
     @Override
@@ -253,70 +436,97 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
     @Override
     public void beforeInvocation(final IInvokedMethod method, final ITestResult testResult,
                                  final ITestContext context) {
+        route(context.getSuite());
         final ITestNGMethod testMethod = method.getTestMethod();
         if (isSupportedConfigurationFixture(testMethod)) {
-            ifSuiteFixtureStarted(context.getSuite(), testMethod);
-            ifTestFixtureStarted(context, testMethod);
-            ifMethodFixtureStarted(testMethod);
+            final String uuid = UUID.randomUUID().toString();
+            fixtures.put(new ResultKey(testResult), uuid);
+            ifSuiteFixtureStarted(context.getSuite(), testMethod, uuid);
+            ifTestFixtureStarted(context, testMethod, uuid);
+            ifMethodFixtureStarted(testResult, testMethod, uuid);
         }
     }
 
-    private void ifSuiteFixtureStarted(final ISuite suite, final ITestNGMethod testMethod) {
+    private void ifSuiteFixtureStarted(final ISuite suite, final ITestNGMethod testMethod, final String uuid) {
         if (testMethod.isBeforeSuiteConfiguration()) {
-            startBefore(getUniqueUuid(suite), testMethod);
+            getLifecycle().startBeforeFixture(getUniqueUuid(suite), uuid, getFixtureResult(testMethod));
         }
         if (testMethod.isAfterSuiteConfiguration()) {
-            startAfter(getUniqueUuid(suite), testMethod);
+            getLifecycle().startAfterFixture(getUniqueUuid(suite), uuid, getFixtureResult(testMethod));
         }
     }
 
-    private void ifTestFixtureStarted(final ITestContext context, final ITestNGMethod testMethod) {
+    private void ifTestFixtureStarted(final ITestContext context, final ITestNGMethod testMethod,
+                                      final String uuid) {
         if (testMethod.isBeforeTestConfiguration()) {
-            startBefore(getUniqueUuid(context), testMethod);
+            getLifecycle().startBeforeFixture(getUniqueUuid(context), uuid, getFixtureResult(testMethod));
         }
         if (testMethod.isAfterTestConfiguration()) {
-            startAfter(getUniqueUuid(context), testMethod);
+            getLifecycle().startAfterFixture(getUniqueUuid(context), uuid, getFixtureResult(testMethod));
         }
     }
 
-    private void startBefore(final String parentUuid, final ITestNGMethod method) {
-        final String uuid = currentExecutable.get();
-        getLifecycle().startBeforeFixture(parentUuid, uuid, getFixtureResult(method));
+    private void ifMethodFixtureStarted(final ITestResult testResult, final ITestNGMethod testMethod,
+                                        final String uuid) {
+        final FixtureResult fixture = getFixtureResult(testMethod);
+        if (testMethod.isBeforeMethodConfiguration()) {
+            final String testUuid = Optional.ofNullable(nextTestResult.get())
+                    .orElseGet(this::createTestUuid);
+            nextTestResult.set(testUuid);
+            final String containerUuid = getFixtureContainer(testResult, testMethod, testUuid);
+            getLifecycle().startBeforeFixture(containerUuid, uuid, fixture);
+        }
+        if (testMethod.isAfterMethodConfiguration()) {
+            final String containerUuid = getFixtureContainer(testResult, testMethod, lastTestResult.get());
+            getLifecycle().startAfterFixture(containerUuid, uuid, fixture);
+        }
     }
 
-    private void startAfter(final String parentUuid, final ITestNGMethod method) {
-        final String uuid = currentExecutable.get();
-        getLifecycle().startAfterFixture(parentUuid, uuid, getFixtureResult(method));
+    /**
+     * Creates uuid for the next test on this thread. The fixtures of previous test on this thread
+     * are finished at this point, so its coalesced container can be written.
+     */
+    private String createTestUuid() {
+        final String previous = lastTestResult.get();
+        if (Objects.nonNull(previous)) {
+            writeTestContainer(previous);
+        }
+        return UUID.randomUUID().toString();
     }
 
-    private void ifMethodFixtureStarted(final ITestNGMethod testMethod) {
-        currentTestContainer.remove();
-        Current current = currentTestResult.get();
-        final FixtureResult fixture = getFixtureResult(testMethod);
-        final String uuid = currentExecutable.get();
-        if (testMethod.isBeforeMethodConfiguration()) {
-            if (current.isStarted()) {
-                currentTestResult.remove();
-                current = currentTestResult.get();
-            }
-            getLifecycle().startBeforeFixture(createFakeContainer(testMethod, current), uuid, fixture);
+    private String getFixtureContainer(final ITestResult fixtureResult, final ITestNGMethod method,
+                                       final String testUuid) {
+        if (coalesceFixtures && Objects.nonNull(testUuid)) {
+            final String contextUuid = getUniqueUuid(fixtureResult.getTestContext());
+            return testContainers.computeIfAbsent(testUuid, key ->
+                    new TestContainer(createFakeContainer(method, key), contextUuid)
+            ).getUuid();
         }
+        final String containerUuid = createFakeContainer(method, testUuid);
+        fixtureContainers.put(new ResultKey(fixtureResult), containerUuid);
+        return containerUuid;
+    }
 
-        if (testMethod.isAfterMethodConfiguration()) {
-            getLifecycle().startAfterFixture(createFakeContainer(testMethod, current), uuid, fixture);
+    private void writeTestContainer(final String testUuid) {
+        final TestContainer container = testContainers.remove(testUuid);
+        if (Objects.nonNull(container)) {
+            getLifecycle().stopTestContainer(container.getUuid());
+            getLifecycle().writeTestContainer(container.getUuid());
         }
     }
 
-    private String createFakeContainer(final ITestNGMethod method, final Current current) {
-        final String parentUuid = currentTestContainer.get();
+    private String createFakeContainer(final ITestNGMethod method, final String testUuid) {
+        final String uuid = UUID.randomUUID().toString();
         final TestResultContainer container = new TestResultContainer()
-                .withUuid(parentUuid)
+                .withUuid(uuid)
                 .withName(method.getQualifiedName())
                 .withStart(System.currentTimeMillis())
-                .withDescription(method.getDescription())
-                .withChildren(current.getUuid());
+                .withDescription(method.getDescription());
+        if (Objects.nonNull(testUuid)) {
+            container.getChildren().add(testUuid);
+        }
         getLifecycle().startTestContainer(container);
-        return parentUuid;
+        return uuid;
     }
 
     private FixtureResult getFixtureResult(final ITestNGMethod method) {
@@ -335,18 +545,27 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
     @Override
     public void afterInvocation(final IInvokedMethod method, final ITestResult testResult,
                                 final ITestContext context) {
+        route(context.getSuite());
         final ITestNGMethod testMethod = method.getTestMethod();
         if (isSupportedConfigurationFixture(testMethod)) {
-            final String executableUuid = currentExecutable.get();
-            currentExecutable.remove();
+            final ResultKey key = new ResultKey(testResult);
+            final String executableUuid = fixtures.remove(key);
             getLifecycle().stopFixture(executableUuid);
 
-            if (testMethod.isBeforeMethodConfiguration() || testMethod.isAfterMethodConfiguration()) {
-                final String containerUuid = currentTestContainer.get();
+            final String containerUuid = fixtureContainers.remove(key);
+            final boolean methodFixture = testMethod.isBeforeMethodConfiguration()
+                    || testMethod.isAfterMethodConfiguration();
+            //coalesced containers are written after all fixtures of the test
+            if (methodFixture && (!coalesceFixtures || Objects.nonNull(containerUuid))) {
                 validateContainerExists(testMethod.getQualifiedName(), containerUuid);
-                currentTestContainer.remove();
                 getLifecycle().stopTestContainer(containerUuid);
-                getLifecycle().writeTestContainer(containerUuid);
+                final String testUuid = nextTestResult.get();
+                final boolean beforeTest = testMethod.isBeforeMethodConfiguration() && Objects.nonNull(testUuid);
+                if (Objects.nonNull(retries) && beforeTest) {
+                    beforeContainers.computeIfAbsent(testUuid, uuid -> new ArrayList<>()).add(containerUuid);
+                } else {
+                    getLifecycle().writeTestContainer(containerUuid);
+                }
             }
         }
     }
@@ -366,107 +585,87 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
         }
     }
 
-    private List<Label> getLabels(final ITestResult result) {
-        return Stream.of(
-                getLabels(result, Epic.class, ResultsUtils::createLabel),
-                getLabels(result, Feature.class, ResultsUtils::createLabel),
-                getLabels(result, Story.class, ResultsUtils::createLabel),
-                getLabels(result, Severity.class, ResultsUtils::createLabel),
-                getLabels(result, Owner.class, ResultsUtils::createLabel)
-        ).reduce(Stream::concat).orElseGet(Stream::empty).collect(Collectors.toList());
-    }
-
-    private <T extends Annotation> Stream<Label> getLabels(final ITestResult result, final Class<T> clazz,
-                                                           final Function<T, Label> extractor) {
-        final List<Label> onMethod = getAnnotationsOnMethod(result, clazz).stream()
-                .map(extractor)
-                .collect(Collectors.toList());
-        if (!onMethod.isEmpty()) {
-            return onMethod.stream();
+    /**
+     * The test class is resolved from the result, then from the method, then from the declaring class
+     * of the method, since some of them can be missing for results created by other tools.
+     */
+    private AnnotationMetadata getMetadata(final ITestResult result) {
+        final Method method = Optional.ofNullable(result.getMethod())
+                .map(ITestNGMethod::getConstructorOrMethod)
+                .map(ConstructorOrMethod::getMethod)
+                .orElse(null);
+        Class<?> testClass = Optional.ofNullable(result.getTestClass())
+                .map(IClass::getRealClass)
+                .orElseGet(() -> Optional.ofNullable(result.getMethod())
+                        .map(ITestNGMethod::getRealClass)
+                        .orElse(null));
+        if (Objects.isNull(testClass) && Objects.nonNull(method)) {
+            testClass = method.getDeclaringClass();
         }
-        return getAnnotationsOnClass(result, clazz).stream()
-                .map(extractor);
-    }
-
-    private List<Link> getLinks(final ITestResult result) {
-        return Stream.of(
-                getAnnotationsOnClass(result, io.qameta.allure.Link.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnMethod(result, io.qameta.allure.Link.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnClass(result, io.qameta.allure.Issue.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnMethod(result, io.qameta.allure.Issue.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnClass(result, io.qameta.allure.TmsLink.class).stream().map(ResultsUtils::createLink),
-                getAnnotationsOnMethod(result, io.qameta.allure.TmsLink.class).stream().map(ResultsUtils::createLink)
-        ).reduce(Stream::concat).orElseGet(Stream::empty).collect(Collectors.toList());
-    }
-
-    private boolean isFlaky(final ITestResult result) {
-        return hasAnnotation(result, Flaky.class);
-    }
-
-    private boolean isMuted(final ITestResult result) {
-        return hasAnnotation(result, Muted.class);
-    }
-
-    private boolean hasAnnotation(final ITestResult result, final Class<? extends Annotation> clazz) {
-        return hasAnnotationOnMethod(result, clazz) || hasAnnotationOnClass(result, clazz);
+        return Objects.isNull(method)
+                ? AnnotationMetadata.get(Objects.isNull(testClass) ? Object.class : testClass)
+                : AnnotationMetadata.get(testClass, method);
     }
 
-    private boolean hasAnnotationOnClass(final ITestResult result, final Class<? extends Annotation> clazz) {
-        return !getAnnotationsOnClass(result, clazz).isEmpty();
-    }
-
-    private boolean hasAnnotationOnMethod(final ITestResult result, final Class<? extends Annotation> clazz) {
-        return !getAnnotationsOnMethod(result, clazz).isEmpty();
+    /**
+     * Routes results written from current thread to the writer of the suite. TestNG calls the listener
+     * on the threads that run the suite, so the route of each thread follows the suite it works for.
+     */
+    private void route(final ISuite suite) {
+        if (Objects.nonNull(router)) {
+            router.setRoute(getRoute(suite));
+        }
     }
 
-    private <T extends Annotation> List<T> getAnnotationsOnMethod(final ITestResult result, final Class<T> clazz) {
-        return Stream.of(result)
-                .map(ITestResult::getMethod)
-                .filter(Objects::nonNull)
-                .map(ITestNGMethod::getConstructorOrMethod)
-                .map(ConstructorOrMethod::getMethod)
-                .flatMap(method -> Stream.of(method.getAnnotationsByType(clazz)))
-                .collect(Collectors.toList());
+    /**
+     * Returns the route of the suite: the suite name, with the index appended if the name is already taken
+     * by another suite. The route is stored in suite attributes, so it follows the suite instance.
+     */
+    private String getRoute(final ISuite suite) {
+        synchronized (suite) {
+            if (Objects.isNull(suite.getAttribute(ALLURE_ROUTE))) {
+                String route = suite.getName();
+                for (int index = 2; !routes.add(route); index++) {
+                    route = suite.getName() + "-" + index;
+                }
+                suite.setAttribute(ALLURE_ROUTE, route);
+            }
+            return Objects.toString(suite.getAttribute(ALLURE_ROUTE));
+        }
     }
 
-    private <T extends Annotation> List<T> getAnnotationsOnClass(final ITestResult result, final Class<T> clazz) {
-        return Stream.of(result)
-                .map(ITestResult::getTestClass)
-                .filter(Objects::nonNull)
-                .map(IClass::getRealClass)
-                .flatMap(aClass -> Stream.of(aClass.getAnnotationsByType(clazz)))
-                .collect(Collectors.toList());
+    private static RoutingResultsWriter getRouter(final AllureLifecycle lifecycle) {
+        final AllureResultsWriter writer = lifecycle.getWriter();
+        return writer instanceof RoutingResultsWriter ? (RoutingResultsWriter) writer : null;
     }
 
     /**
      * Returns the unique id for given results item.
      */
-    private String getUniqueUuid(final IAttributes suite) {
-        if (Objects.isNull(suite.getAttribute(ALLURE_UUID))) {
-            suite.setAttribute(ALLURE_UUID, UUID.randomUUID().toString());
+    private String getUniqueUuid(final IAttributes attributes) {
+        //listeners of parallel tests can get the uuid at the same time
+        synchronized (attributes) {
+            if (Objects.isNull(attributes.getAttribute(ALLURE_UUID))) {
+                attributes.setAttribute(ALLURE_UUID, UUID.randomUUID().toString());
+            }
+            return Objects.toString(attributes.getAttribute(ALLURE_UUID));
         }
-        return Objects.toString(suite.getAttribute(ALLURE_UUID));
     }
 
-    private String getHistoryId(final String name, final Map<String, String> parameters) {
-        final MessageDigest digest = getMessageDigest();
-        digest.update(name.getBytes(UTF_8));
-        parameters.entrySet().stream()
-                .sorted(Map.Entry.<String, String>comparingByKey().thenComparing(comparingByValue()))
-                .forEachOrdered(entry -> {
-                    digest.update(entry.getKey().getBytes(UTF_8));
-                    digest.update(entry.getValue().getBytes(UTF_8));
-                });
-        final byte[] bytes = digest.digest();
-        return new BigInteger(1, bytes).toString(16);
+    private static String getTestName(final ITestNGMethod method) {
+        return firstNonEmpty(
+                method.getDescription(),
+                method.getMethodName(),
+                method.getQualifiedName()).orElse("Unknown");
     }
 
-    private MessageDigest getMessageDigest() {
-        try {
-            return MessageDigest.getInstance(MD_5);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("Could not find md5 hashing algorithm", e);
-        }
+    private static List<Label> getGroupingLabels(final ITestClass testClass) {
+        return Arrays.asList(
+                new Label().withName("testClass").withValue(testClass.getName()),
+                new Label().withName("parentSuite").withValue(safeExtractSuiteName(testClass)),
+                new Label().withName("suite").withValue(safeExtractTestTag(testClass)),
+                new Label().withName("subSuite").withValue(safeExtractTestClassName(testClass))
+        );
     }
 
     private static String safeExtractSuiteName(final ITestClass testClass) {
@@ -493,11 +692,10 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
                 .orElseGet(Stream::empty)
                 .map(java.lang.reflect.Parameter::getName)
                 .toArray(String[]::new);
-        final String[] parameterValues = Stream.of(testResult.getParameters())
-                .map(Objects::toString)
-                .toArray(String[]::new);
+        final Object[] parameterValues = testResult.getParameters();
+        final ParameterRenderer renderer = ParameterRenderer.getDefault();
         return IntStream.range(0, Math.min(parameterNames.length, parameterValues.length))
-                .mapToObj(i -> new Parameter().withName(parameterNames[i]).withValue(parameterValues[i]))
+                .mapToObj(i -> renderer.createParameter(parameterNames[i], parameterValues[i]))
                 .collect(Collectors.toList());
     }
 
@@ -511,50 +709,56 @@ public class AllureTestNg implements ISuiteListener, ITestListener, IInvokedMeth
                 .withStatusDetails(details);
     }
 
-    private Current refreshContext() {
-        currentTestResult.remove();
-        return currentTestResult.get();
+    /**
+     * The history id is computed when the test is stopped, so deferred parameters are rendered once,
+     * at the end of the test.
+     */
+    private static void setHistoryId(final TestResult result) {
+        result.setHistoryId(HistoryIdGenerator.getDefault().generate(result.getFullName(), result.getParameters()));
     }
 
     /**
-     * Describes current test result.
+     * The container with all before/after methods of the test.
      */
-    private static class Current {
+    private static final class TestContainer {
+
         private final String uuid;
-        private CurrentStage currentStage;
 
-        Current() {
-            this.uuid = UUID.randomUUID().toString();
-            this.currentStage = CurrentStage.BEFORE;
-        }
+        private final String contextUuid;
 
-        public void test() {
-            this.currentStage = CurrentStage.TEST;
+        TestContainer(final String uuid, final String contextUuid) {
+            this.uuid = uuid;
+            this.contextUuid = contextUuid;
         }
 
-        public void after() {
-            this.currentStage = CurrentStage.AFTER;
+        String getUuid() {
+            return uuid;
         }
 
-        public boolean isStarted() {
-            return this.currentStage != CurrentStage.BEFORE;
+        String getContextUuid() {
+            return contextUuid;
         }
+    }
 
-        public boolean isAfter() {
-            return this.currentStage == CurrentStage.AFTER;
+    /**
+     * Compares test results by identity, so the correlation doesn't depend on equals of TestNG results.
+     */
+    private static final class ResultKey {
+
+        private final ITestResult result;
+
+        ResultKey(final ITestResult result) {
+            this.result = result;
         }
 
-        public String getUuid() {
-            return uuid;
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof ResultKey && ((ResultKey) other).result == result;
         }
-    }
 
-    /**
-     * The stage of current result context.
-     */
-    private enum CurrentStage {
-        BEFORE,
-        TEST,
-        AFTER
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(result);
+        }
     }
 }
@@ -0,0 +1,101 @@
+package io.qameta.allure.testng;
+
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.TestResult;
+import org.testng.ITestClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Collects results of tests skipped without start (e.g. because of failed configuration method
+ * or dependency) to write them in batches. Such results share labels of the test class and
+ * status details of the skip cause.
+ */
+final class CompactSkips {
+
+    /**
+     * Enables compact results for tests skipped without start.
+     */
+    static final String ALLURE_TESTNG_COMPACT_SKIPS = "allure.testng.compactSkips";
+
+    /**
+     * The number of skipped results written at once.
+     */
+    static final String ALLURE_TESTNG_COMPACT_SKIPS_BATCH_SIZE = "allure.testng.compactSkips.batchSize";
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final int batchSize;
+
+    /**
+     * The context uuid to the skipped results not written yet.
+     */
+    private final Map<String, List<TestResult>> pending = new ConcurrentHashMap<>();
+
+    private final Map<ITestClass, List<Label>> labels = new ConcurrentHashMap<>();
+
+    /**
+     * The status details by skip cause. Throwable is compared by identity, so the details are shared
+     * by all tests skipped because of the same failure.
+     */
+    private final Map<Throwable, StatusDetails> details = Collections.synchronizedMap(new WeakHashMap<>());
+
+    CompactSkips(final int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Reads configuration from system properties. Returns null if compact skips are disabled.
+     */
+    static CompactSkips fromSystemProperties() {
+        if (!Boolean.getBoolean(ALLURE_TESTNG_COMPACT_SKIPS)) {
+            return null;
+        }
+        return new CompactSkips(Integer.getInteger(ALLURE_TESTNG_COMPACT_SKIPS_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    }
+
+    List<Label> getLabels(final ITestClass testClass, final Function<ITestClass, List<Label>> factory) {
+        return labels.computeIfAbsent(testClass, factory);
+    }
+
+    StatusDetails getStatusDetails(final Throwable cause, final Function<Throwable, StatusDetails> factory) {
+        return Objects.isNull(cause) ? null : details.computeIfAbsent(cause, factory);
+    }
+
+    /**
+     * Adds the skipped result of the context. Returns the batch to write if it is full, empty list otherwise.
+     */
+    List<TestResult> add(final String contextUuid, final TestResult result) {
+        final List<TestResult> batch = pending.computeIfAbsent(contextUuid, key -> new ArrayList<>());
+        synchronized (batch) {
+            batch.add(result);
+            if (batch.size() < batchSize) {
+                return Collections.emptyList();
+            }
+            final List<TestResult> full = new ArrayList<>(batch);
+            batch.clear();
+            return full;
+        }
+    }
+
+    /**
+     * Removes and returns all skipped results of the context not written yet.
+     */
+    List<TestResult> release(final String contextUuid) {
+        final List<TestResult> batch = pending.remove(contextUuid);
+        if (Objects.isNull(batch)) {
+            return Collections.emptyList();
+        }
+        synchronized (batch) {
+            return new ArrayList<>(batch);
+        }
+    }
+}
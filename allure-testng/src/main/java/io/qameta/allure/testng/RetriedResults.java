@@ -0,0 +1,184 @@
+package io.qameta.allure.testng;
+
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the attempts of retried tests until the final attempt, so only one test result per test is written.
+ * The attempts are grouped by test context and history id.
+ */
+final class RetriedResults {
+
+    /**
+     * Enables collapsing of retried test attempts into the final attempt.
+     */
+    static final String ALLURE_TESTNG_COLLAPSE_RETRIES = "allure.testng.collapseRetries";
+
+    /**
+     * Enables linking of attachments of superseded attempts to the final attempt.
+     */
+    static final String ALLURE_TESTNG_RETRIES_KEEP_ATTACHMENTS = "allure.testng.collapseRetries.keepAttachments";
+
+    static final String ATTEMPTS_PARAMETER = "allure.retry.attempts";
+
+    static final String HISTORY_PARAMETER = "allure.retry.history";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetriedResults.class);
+
+    /**
+     * ITestResult#wasRetried() available since TestNG 7, null for older versions.
+     */
+    private static final Method WAS_RETRIED = findWasRetried();
+
+    private final boolean keepAttachments;
+
+    /**
+     * The context uuid to the uuids of held attempts by history id.
+     */
+    private final Map<String, Map<String, List<String>>> attempts = new ConcurrentHashMap<>();
+
+    RetriedResults(final boolean keepAttachments) {
+        this.keepAttachments = keepAttachments;
+    }
+
+    /**
+     * Reads configuration from system properties. Returns null if retries should not be collapsed.
+     */
+    static RetriedResults fromSystemProperties() {
+        if (!Boolean.getBoolean(ALLURE_TESTNG_COLLAPSE_RETRIES)) {
+            return null;
+        }
+        return new RetriedResults(Boolean.getBoolean(ALLURE_TESTNG_RETRIES_KEEP_ATTACHMENTS));
+    }
+
+    /**
+     * Returns true if the test result is the attempt TestNG is going to retry. TestNG reports such
+     * attempts as skipped. Newer TestNG versions mark them with {@code ITestResult#wasRetried()}. Before
+     * that TestNG retries only started attempts that failed (the failure is kept as the throwable of
+     * the skipped result), and only if the retry analyzer accepted the attempt, while tests skipped
+     * by {@link SkipException} or by failed dependencies are never retried.
+     *
+     * @param result  the test result.
+     * @param started true if the test was started, false if it is skipped without start.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    boolean isRetried(final ITestResult result, final boolean started) {
+        if (Objects.nonNull(WAS_RETRIED)) {
+            try {
+                return (Boolean) WAS_RETRIED.invoke(result);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.debug("Could not check if {} was retried", result.getName(), e);
+            }
+        }
+        final Throwable throwable = result.getThrowable();
+        return started
+                && result.getStatus() == ITestResult.SKIP
+                && Objects.nonNull(result.getMethod())
+                && Objects.nonNull(result.getMethod().getRetryAnalyzer())
+                && Objects.nonNull(throwable)
+                && !(throwable instanceof SkipException);
+    }
+
+    private static Method findWasRetried() {
+        try {
+            return ITestResult.class.getMethod("wasRetried");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    void hold(final String contextUuid, final String historyId, final String uuid) {
+        attempts.computeIfAbsent(contextUuid, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(historyId, key -> Collections.synchronizedList(new ArrayList<>()))
+                .add(uuid);
+    }
+
+    /**
+     * Removes and returns the uuids of held attempts of the test, in order of execution.
+     */
+    List<String> release(final String contextUuid, final String historyId) {
+        final Map<String, List<String>> held = attempts.get(contextUuid);
+        final List<String> uuids = Objects.isNull(held) ? null : held.remove(historyId);
+        return Objects.isNull(uuids) ? Collections.emptyList() : uuids;
+    }
+
+    /**
+     * Removes and returns the held attempts of all tests of the context. The last attempt of each test
+     * was never retried (e.g. it is skipped for another reason).
+     */
+    List<List<String>> releaseAll(final String contextUuid) {
+        final Map<String, List<String>> held = attempts.remove(contextUuid);
+        return Objects.isNull(held) ? Collections.emptyList() : new ArrayList<>(held.values());
+    }
+
+    /**
+     * Adds the metadata of superseded attempts to the final attempt.
+     *
+     * @param result     the final attempt.
+     * @param superseded the previous attempts in order of execution.
+     */
+    void collapse(final TestResult result, final List<TestResult> superseded) {
+        if (superseded.isEmpty()) {
+            return;
+        }
+        final List<TestResult> all = new ArrayList<>(superseded);
+        all.add(result);
+        result.getParameters().add(new Parameter()
+                .withName(ATTEMPTS_PARAMETER)
+                .withValue(String.valueOf(all.size())));
+        result.getParameters().add(new Parameter()
+                .withName(HISTORY_PARAMETER)
+                .withValue(all.stream().map(RetriedResults::describe).collect(Collectors.joining(", "))));
+        final boolean recovered = result.getStatus() == Status.PASSED
+                && superseded.stream().anyMatch(attempt -> attempt.getStatus() != Status.PASSED);
+        if (recovered) {
+            if (Objects.isNull(result.getStatusDetails())) {
+                result.setStatusDetails(new StatusDetails());
+            }
+            result.getStatusDetails().setFlaky(true);
+        }
+        if (keepAttachments) {
+            for (int i = 0; i < superseded.size(); i++) {
+                final String prefix = String.format("Attempt %d: ", i + 1);
+                collectAttachments(superseded.get(i).getAttachments(), superseded.get(i).getSteps())
+                        .forEach(attachment -> result.getAttachments().add(new Attachment()
+                                .withName(prefix + Objects.toString(attachment.getName(), attachment.getSource()))
+                                .withType(attachment.getType())
+                                .withSource(attachment.getSource())));
+            }
+        }
+    }
+
+    private static String describe(final TestResult attempt) {
+        final boolean timed = Objects.nonNull(attempt.getStart()) && Objects.nonNull(attempt.getStop());
+        return timed
+                ? String.format("%s %dms", attempt.getStatus(), attempt.getStop() - attempt.getStart())
+                : String.valueOf(attempt.getStatus());
+    }
+
+    private static List<Attachment> collectAttachments(final List<Attachment> attachments,
+                                                       final List<StepResult> steps) {
+        final List<Attachment> result = new ArrayList<>(attachments);
+        for (StepResult step : steps) {
+            result.addAll(collectAttachments(step.getAttachments(), step.getSteps()));
+        }
+        return result;
+    }
+}
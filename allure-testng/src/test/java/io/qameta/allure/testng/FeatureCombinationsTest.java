@@ -1,11 +1,13 @@
 package io.qameta.allure.testng;
 
 import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.RoutingResultsWriter;
 import io.qameta.allure.aspects.StepsAspects;
 import io.qameta.allure.model.ExecutableItem;
 import io.qameta.allure.model.FixtureResult;
 import io.qameta.allure.model.Label;
 import io.qameta.allure.model.Link;
+import io.qameta.allure.model.Parameter;
 import io.qameta.allure.model.Stage;
 import io.qameta.allure.model.Status;
 import io.qameta.allure.model.StepResult;
@@ -22,12 +24,16 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * @author Egor Borisov ehborisov@gmail.com
@@ -182,6 +188,43 @@ public class FeatureCombinationsTest {
         assertContainersPerMethod(after2, testContainers, uuids);
     }
 
+    @Test(description = "Coalesced per method fixtures")
+    public void coalescedPerMethodFixtures() {
+        System.setProperty(AllureTestNg.ALLURE_TESTNG_COALESCE_FIXTURES, "true");
+        try {
+            testNg = new TestNG(false);
+            testNg.addListener((ITestNGListener) new AllureTestNg(new AllureLifecycle(results)));
+            runTestNgSuites("suites/per-method-fixtures-combination.xml");
+        } finally {
+            System.clearProperty(AllureTestNg.ALLURE_TESTNG_COALESCE_FIXTURES);
+        }
+
+        List<TestResult> testResults = results.getTestResults();
+        List<String> uuids = testResults.stream().map(TestResult::getUuid).collect(Collectors.toList());
+        List<TestResultContainer> methodContainers = results.getTestContainers().stream()
+                .filter(container -> !Arrays.asList("Test suite 11", "Test tag 11").contains(container.getName()))
+                .collect(Collectors.toList());
+
+        assertThat(testResults).as("Unexpected quantity of testng case results has been written").hasSize(2);
+        assertThat(methodContainers).as("Expected one container per test invocation").hasSize(2);
+        assertThat(methodContainers)
+                .flatExtracting(TestResultContainer::getChildren)
+                .as("Each test should be linked to its own container")
+                .containsOnlyElementsOf(uuids)
+                .doesNotHaveDuplicates()
+                .hasSize(2);
+        methodContainers.forEach(container -> {
+            assertThat(container.getBefores())
+                    .extracting(FixtureResult::getName)
+                    .containsOnly("beforeMethod1", "beforeMethod2")
+                    .hasSize(2);
+            assertThat(container.getAfters())
+                    .extracting(FixtureResult::getName)
+                    .containsOnly("afterMethod1", "afterMethod2")
+                    .hasSize(2);
+        });
+    }
+
     @Test(description = "Test fixtures")
     public void perTestTagFixtures() {
         String suiteName = "Test suite 13";
@@ -230,6 +273,30 @@ public class FeatureCombinationsTest {
                 .has(skipReason);
     }
 
+    @Test(description = "Compact skipped tests")
+    public void compactSkippedSuite() {
+        System.setProperty(CompactSkips.ALLURE_TESTNG_COMPACT_SKIPS, "true");
+        try {
+            testNg = new TestNG(false);
+            testNg.addListener((ITestNGListener) new AllureTestNg(new AllureLifecycle(results)));
+            runTestNgSuites("suites/skipped-suite.xml");
+        } finally {
+            System.clearProperty(CompactSkips.ALLURE_TESTNG_COMPACT_SKIPS);
+        }
+        List<TestResult> testResults = results.getTestResults();
+        assertThat(testResults)
+                .hasSize(2)
+                .extracting(TestResult::getStatus, TestResult::getStage)
+                .containsOnly(tuple(Status.SKIPPED, Stage.FINISHED));
+        assertThat(testResults)
+                .flatExtracting(TestResult::getLabels)
+                .extracting(Label::getName)
+                .doesNotContain("host", "thread");
+        assertThat(results.getTestContainers())
+                .flatExtracting(TestResultContainer::getChildren)
+                .containsAll(testResults.stream().map(TestResult::getUuid).collect(Collectors.toList()));
+    }
+
     @Test(description = "Multi suites")
     public void multipleSuites() {
         String beforeMethodName = "io.qameta.allure.samples.ParameterizedTest.beforeMethod";
@@ -282,6 +349,45 @@ public class FeatureCombinationsTest {
         assertContainersChildren(testTag, testContainers, uids);
     }
 
+    @Test(description = "Parallel instances with timeout")
+    public void parallelInstancesWithTimeout() {
+        String before = "io.qameta.allure.testng.samples.InstancesWithTimeout.beforeMethod";
+        String after = "io.qameta.allure.testng.samples.InstancesWithTimeout.afterMethod";
+
+        runTestNgSuites("suites/parallel-instances.xml");
+        List<TestResult> testResults = results.getTestResults();
+        List<TestResultContainer> containers = results.getTestContainers();
+        assertThat(testResults).as("Unexpected quantity of testng case results has been written")
+                .hasSize(4);
+        assertThat(testResults)
+                .extracting(result -> getInstance(result.getSteps()), TestResult::getStatus)
+                .as("Each result should have its own step and status")
+                .containsOnly(
+                        tuple("first", Status.PASSED),
+                        tuple("second", Status.FAILED),
+                        tuple("third", Status.PASSED),
+                        tuple("fourth", Status.PASSED)
+                );
+
+        testResults.forEach(result -> {
+            String instance = getInstance(result.getSteps());
+            Stream.of(before, after).forEach(name -> {
+                List<TestResultContainer> fixtures = containers.stream()
+                        .filter(container -> name.equals(container.getName()))
+                        .filter(container -> container.getChildren().contains(result.getUuid()))
+                        .collect(Collectors.toList());
+                assertThat(fixtures).as("Unexpected fixtures %s of test %s", name, instance).hasSize(1);
+                TestResultContainer fixture = fixtures.get(0);
+                assertThat(fixture.getChildren()).containsExactly(result.getUuid());
+                assertThat(Stream.concat(fixture.getBefores().stream(), fixture.getAfters().stream())
+                        .map(item -> getInstance(item.getSteps()))
+                        .collect(Collectors.toList()))
+                        .as("Fixture %s should have a step of instance %s", name, instance)
+                        .containsExactly(instance);
+            });
+        });
+    }
+
     @Test(description = "Nested steps")
     public void nestedSteps() {
         String beforeMethod = "io.qameta.allure.samples.NestedSteps.beforeMethod";
@@ -410,6 +516,64 @@ public class FeatureCombinationsTest {
                 .hasSize(2);
     }
 
+    @Test
+    public void retryCollapseTest() throws Exception {
+        System.setProperty(RetriedResults.ALLURE_TESTNG_COLLAPSE_RETRIES, "true");
+        try {
+            testNg = new TestNG(false);
+            testNg.addListener((ITestNGListener) new AllureTestNg(new AllureLifecycle(results)));
+            runTestNgSuites("suites/retry.xml");
+        } finally {
+            System.clearProperty(RetriedResults.ALLURE_TESTNG_COLLAPSE_RETRIES);
+        }
+        List<TestResult> testResults = results.getTestResults();
+        assertThat(testResults)
+                .hasSize(1)
+                .extracting(TestResult::getStatus)
+                .containsExactly(Status.BROKEN);
+        assertThat(testResults.get(0).getParameters())
+                .filteredOn(parameter -> RetriedResults.ATTEMPTS_PARAMETER.equals(parameter.getName()))
+                .extracting(Parameter::getValue)
+                .containsExactly("2");
+        assertThat(results.getTestContainers())
+                .as("Superseded attempts should be removed from containers")
+                .flatExtracting(TestResultContainer::getChildren)
+                .filteredOn(child -> !getUidsByName(results.getTestContainers(), "Retry suite").contains(child))
+                .filteredOn(child -> !getUidsByName(results.getTestContainers(), "Retry tests").contains(child))
+                .containsExactly(testResults.get(0).getUuid(), testResults.get(0).getUuid());
+    }
+
+    @Test(description = "Parallel suites with the same name are routed to separate writers")
+    public void parallelSuitesRouting() throws Exception {
+        final AllureResultsWriterStub defaultWriter = new AllureResultsWriterStub();
+        final Map<String, AllureResultsWriterStub> writers = new ConcurrentHashMap<>();
+        final AllureTestNg adapter = new AllureTestNg(new AllureLifecycle(new RoutingResultsWriter(defaultWriter,
+                route -> writers.computeIfAbsent(route, key -> new AllureResultsWriterStub()))));
+        final String suite = getClass().getClassLoader().getResource("suites/routed-suite.xml").getFile();
+        final List<Thread> runners = Stream.generate(() -> new Thread(() -> {
+            final TestNG runner = new TestNG(false);
+            runner.addListener((ITestNGListener) adapter);
+            runner.setTestSuites(Collections.singletonList(suite));
+            runner.run();
+        })).limit(2).collect(Collectors.toList());
+        runners.forEach(Thread::start);
+        for (Thread runner : runners) {
+            runner.join();
+        }
+
+        assertThat(writers).containsOnlyKeys("Routed suite", "Routed suite-2");
+        writers.values().forEach(writer -> {
+            assertThat(writer.getTestResults())
+                    .extracting(TestResult::getName)
+                    .containsExactly("testWithOneStep");
+            assertThat(writer.getTestContainers())
+                    .extracting(TestResultContainer::getName)
+                    .containsOnly("Routed suite", "Routed test");
+        });
+        assertThat(defaultWriter.getTestResults()).isEmpty();
+        assertThat(defaultWriter.getTestContainers()).isEmpty();
+    }
+
     @Test
     public void severityTest() throws Exception {
         runTestNgSuites("suites/severity.xml");
@@ -498,4 +662,9 @@ public class FeatureCombinationsTest {
                 .flatExtracting(FixtureResult::getName)
                 .containsExactly(befores);
     }
+
+    private static String getInstance(List<StepResult> steps) {
+        assertThat(steps).as("Expected a single step with instance parameter").hasSize(1);
+        return steps.get(0).getParameters().get(0).getValue();
+    }
 }
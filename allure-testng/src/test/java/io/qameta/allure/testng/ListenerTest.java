@@ -115,7 +115,7 @@ public class ListenerTest {
         }
     }
 
-    private void mockTestStart() {
+    private ITestResult mockTestStart() {
         ITestResult iResult = mock(ITestResult.class);
         when(iResult.getAttribute(ALLURE_UUID_KEY)).thenReturn(RESULT_UUID);
 
@@ -141,6 +141,7 @@ public class ListenerTest {
         when(xmlTest.getName()).thenReturn(TEST_NAME);
         when(suite.getName()).thenReturn(SUITE_NAME);
         allureTestNg.onTestStart(iResult);
+        return iResult;
     }
 
     @Test
@@ -163,11 +164,10 @@ public class ListenerTest {
 
     @Test
     public void testSuccess() throws NoSuchMethodException {
-        mockTestStart();
+        ITestResult iResult = mockTestStart();
         ArgumentCaptor<TestResult> result = ArgumentCaptor.forClass(TestResult.class);
         verify(lifecycle).scheduleTestCase(eq(CONTAINER_UUID), result.capture());
 
-        ITestResult iResult = mock(ITestResult.class);
         allureTestNg.onTestSuccess(iResult);
         InOrder order = inOrder(lifecycle);
         final String uuid = result.getValue().getUuid();
@@ -178,11 +178,10 @@ public class ListenerTest {
 
     @Test
     public void testFailure() throws NoSuchMethodException {
-        mockTestStart();
+        ITestResult iResult = mockTestStart();
         ArgumentCaptor<TestResult> result = ArgumentCaptor.forClass(TestResult.class);
         verify(lifecycle).scheduleTestCase(eq(CONTAINER_UUID), result.capture());
 
-        ITestResult iResult = mock(ITestResult.class);
         when(iResult.getThrowable()).thenReturn(new Throwable("Cause"));
 
         allureTestNg.onTestFailure(iResult);
@@ -195,12 +194,10 @@ public class ListenerTest {
 
     @Test
     public void testSkipped() throws NoSuchMethodException {
-        mockTestStart();
+        ITestResult iResult = mockTestStart();
         ArgumentCaptor<TestResult> result = ArgumentCaptor.forClass(TestResult.class);
         verify(lifecycle).scheduleTestCase(eq(CONTAINER_UUID), result.capture());
 
-        ITestResult iResult = mock(ITestResult.class);
-
         allureTestNg.onTestSkipped(iResult);
         InOrder order = inOrder(lifecycle);
         final String uuid = result.getValue().getUuid();
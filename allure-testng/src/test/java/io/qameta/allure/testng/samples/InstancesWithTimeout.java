@@ -0,0 +1,52 @@
+package io.qameta.allure.testng.samples;
+
+import io.qameta.allure.Step;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.fail;
+
+/**
+ * Instances of the class run in parallel, the test method runs in a thread created by TestNG for timeOut.
+ */
+public class InstancesWithTimeout {
+
+    private final String id;
+
+    @Factory(dataProvider = "instances")
+    public InstancesWithTimeout(final String id) {
+        this.id = id;
+    }
+
+    @DataProvider
+    public static Object[][] instances() {
+        return new Object[][]{{"first"}, {"second"}, {"third"}, {"fourth"}};
+    }
+
+    @BeforeMethod
+    public void beforeMethod() {
+        instanceStep(id);
+    }
+
+    @Test(timeOut = 10000)
+    public void testWithTimeout() throws InterruptedException {
+        instanceStep(id);
+        Thread.sleep(100);
+        if ("second".equals(id)) {
+            fail("Failed instance " + id);
+        }
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        instanceStep(id);
+    }
+
+    @Step("Instance step")
+    public void instanceStep(final String instance) {
+
+    }
+}
@@ -1,6 +1,7 @@
 package io.qameta.allure.testng.samples;
 
 import org.testng.ITestResult;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.testng.util.RetryAnalyzerCount;
 
@@ -9,6 +10,11 @@ import org.testng.util.RetryAnalyzerCount;
  */
 public class RetryTest {
 
+    @BeforeMethod
+    public void prepare() throws Exception {
+        //do nothing
+    }
+
     @Test(retryAnalyzer = Retry.class)
     public void testWithRetry() throws Exception {
         throw new RuntimeException("Unexpected failure");